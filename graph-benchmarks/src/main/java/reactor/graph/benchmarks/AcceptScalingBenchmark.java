@@ -0,0 +1,66 @@
+package reactor.graph.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.Environment;
+import reactor.function.Consumer;
+import reactor.graph.Graph;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link reactor.graph.Graph#accept(Object)} from several producer threads sharing one
+ * {@literal Graph}. Run it with JMH's {@code -t} option set to 1, 2, 4 and so on to see how throughput changes with the
+ * number of producers. The producers are JMH's own benchmark threads, which live for the whole run, so their per-thread
+ * event caches stay in use from one iteration to the next.
+ * <p>
+ * On the synchronous {@literal Dispatcher} each producer runs the whole {@literal Graph} on its own thread and
+ * releases the events it acquired. On the work queue {@literal Dispatcher} the events are released by the work queue's
+ * threads instead, which exercises the exchange of events between threads through the pool's shared depot. The start
+ * {@literal Node} is bounded so that producers cannot outrun the work queue.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class AcceptScalingBenchmark {
+
+	@Param({"sync", "workQueue"})
+	public String dispatcher;
+
+	Environment   env;
+	Graph<String> graph;
+
+	@Setup
+	public void setup() {
+		env = new Environment();
+
+		graph = Graph.create(env, dispatcher);
+		graph.node("start")
+		     .capacity(1024)
+		     .consume(new Consumer<String>() {
+			     @Override
+			     public void accept(String s) {
+				     // no shared state here, so the only thing producers share is the Graph itself
+				     if(null == s) {
+					     throw new IllegalStateException("null value");
+				     }
+			     }
+		     });
+		graph.startNode("start").compile();
+	}
+
+	@TearDown
+	public void tearDown() {
+		env.shutdown();
+	}
+
+	@Benchmark
+	public void accept() {
+		graph.accept("value");
+	}
+
+}
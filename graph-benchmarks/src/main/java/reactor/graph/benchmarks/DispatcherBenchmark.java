@@ -0,0 +1,107 @@
+package reactor.graph.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.Environment;
+import reactor.core.Reactor;
+import reactor.core.spec.Reactors;
+import reactor.event.Event;
+import reactor.event.selector.Selectors;
+import reactor.function.Consumer;
+import reactor.function.Function;
+import reactor.graph.Graph;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of a two-stage {@literal Graph} running on the synchronous, ring buffer and work queue
+ * {@literal Dispatchers} of the {@link reactor.core.Environment}. Each invocation accepts a batch of values and waits
+ * until all of them have been processed. The raw {@literal Reactor} baseline notifies the same two stages through
+ * selectors on the same {@literal Dispatcher}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DispatcherBenchmark {
+
+	static final int BATCH = 1000;
+
+	@Param({"sync", "ringBuffer", "workQueue"})
+	public String dispatcher;
+
+	final AtomicLong processed = new AtomicLong();
+
+	Environment env;
+	Graph<Long> graph;
+	Reactor     reactor;
+
+	@Setup
+	public void setup() {
+		env = new Environment();
+
+		graph = Graph.create(env, dispatcher);
+		graph.node()
+		     .then(new Function<Long, Long>() {
+			     @Override
+			     public Long apply(Long l) {
+				     return l + 1;
+			     }
+		     })
+		     .consume(new Consumer<Long>() {
+			     @Override
+			     public void accept(Long l) {
+				     processed.incrementAndGet();
+			     }
+		     });
+		graph.compile();
+
+		reactor = Reactors.reactor(env, env.getDispatcher(dispatcher));
+		reactor.on(Selectors.$("first"), new Consumer<Event<Long>>() {
+			@Override
+			public void accept(Event<Long> ev) {
+				reactor.notify("second", Event.wrap(ev.getData() + 1));
+			}
+		});
+		reactor.on(Selectors.$("second"), new Consumer<Event<Long>>() {
+			@Override
+			public void accept(Event<Long> ev) {
+				processed.incrementAndGet();
+			}
+		});
+	}
+
+	@TearDown
+	public void tearDown() {
+		env.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void graph() {
+		long target = processed.get() + BATCH;
+		for(long l = 0; l < BATCH; l++) {
+			graph.accept(l);
+		}
+		awaitProcessed(target);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void rawReactor() {
+		long target = processed.get() + BATCH;
+		for(long l = 0; l < BATCH; l++) {
+			reactor.notify("first", Event.wrap(l));
+		}
+		awaitProcessed(target);
+	}
+
+	private void awaitProcessed(long target) {
+		while(processed.get() < target) {
+			Thread.yield();
+		}
+	}
+
+}
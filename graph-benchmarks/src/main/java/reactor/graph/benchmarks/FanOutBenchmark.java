@@ -0,0 +1,77 @@
+package reactor.graph.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.Environment;
+import reactor.core.Reactor;
+import reactor.core.spec.Reactors;
+import reactor.event.Event;
+import reactor.event.selector.Selectors;
+import reactor.function.Consumer;
+import reactor.graph.Graph;
+import reactor.graph.Node;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of handing a value to {@code consumers} consumers attached to the same {@literal Node}, on the
+ * synchronous {@literal Dispatcher}. The raw {@literal Reactor} baseline registers the same number of consumers on a
+ * single selector.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FanOutBenchmark {
+
+	@Param({"1", "4", "16"})
+	public int consumers;
+
+	Environment env;
+	Graph<Long> graph;
+	Reactor     reactor;
+	long        sink;
+
+	@Setup
+	public void setup() {
+		env = new Environment();
+		graph = Graph.create(env, "sync");
+		reactor = Reactors.reactor(env, env.getDispatcher("sync"));
+
+		Node<Long> node = graph.node();
+		for(int i = 0; i < consumers; i++) {
+			node.consume(new Consumer<Long>() {
+				@Override
+				public void accept(Long l) {
+					sink += l;
+				}
+			});
+			reactor.on(Selectors.$("fanOut"), new Consumer<Event<Long>>() {
+				@Override
+				public void accept(Event<Long> ev) {
+					sink += ev.getData();
+				}
+			});
+		}
+		graph.compile();
+	}
+
+	@TearDown
+	public void tearDown() {
+		env.shutdown();
+	}
+
+	@Benchmark
+	public long graph() {
+		graph.accept(1L);
+		return sink;
+	}
+
+	@Benchmark
+	public long rawReactor() {
+		reactor.notify("fanOut", Event.wrap(1L));
+		return sink;
+	}
+
+}
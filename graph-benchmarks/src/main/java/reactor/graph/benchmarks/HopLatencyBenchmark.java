@@ -0,0 +1,94 @@
+package reactor.graph.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.Environment;
+import reactor.core.Reactor;
+import reactor.core.spec.Reactors;
+import reactor.event.Event;
+import reactor.event.selector.Selectors;
+import reactor.function.Consumer;
+import reactor.function.Function;
+import reactor.graph.Graph;
+import reactor.graph.Node;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of passing a value through a chain of {@code hops} transformations on the synchronous {@literal
+ * Dispatcher}, so that only the overhead of the graph layer is measured. The raw {@literal Reactor} baseline wires the
+ * same chain by hand with one selector per hop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HopLatencyBenchmark {
+
+	@Param({"1", "5", "10"})
+	public int hops;
+
+	Environment env;
+	Graph<Long> graph;
+	Reactor     reactor;
+	long        sink;
+
+	@Setup
+	public void setup() {
+		env = new Environment();
+
+		graph = Graph.create(env, "sync");
+		Node<Long> node = graph.node();
+		for(int i = 0; i < hops; i++) {
+			node = node.then(new Function<Long, Long>() {
+				@Override
+				public Long apply(Long l) {
+					return l + 1;
+				}
+			});
+		}
+		node.consume(new Consumer<Long>() {
+			@Override
+			public void accept(Long l) {
+				sink = l;
+			}
+		});
+		graph.compile();
+
+		reactor = Reactors.reactor(env, env.getDispatcher("sync"));
+		for(int i = 0; i < hops; i++) {
+			final int next = i + 1;
+			reactor.on(Selectors.$(i), new Consumer<Event<Long>>() {
+				@Override
+				public void accept(Event<Long> ev) {
+					reactor.notify(next, Event.wrap(ev.getData() + 1));
+				}
+			});
+		}
+		reactor.on(Selectors.$(hops), new Consumer<Event<Long>>() {
+			@Override
+			public void accept(Event<Long> ev) {
+				sink = ev.getData();
+			}
+		});
+	}
+
+	@TearDown
+	public void tearDown() {
+		env.shutdown();
+	}
+
+	@Benchmark
+	public long graph() {
+		graph.accept(1L);
+		return sink;
+	}
+
+	@Benchmark
+	public long rawReactor() {
+		reactor.notify(0, Event.wrap(1L));
+		return sink;
+	}
+
+}
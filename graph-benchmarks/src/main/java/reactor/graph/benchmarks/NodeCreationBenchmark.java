@@ -0,0 +1,75 @@
+package reactor.graph.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.Environment;
+import reactor.core.Reactor;
+import reactor.core.spec.Reactors;
+import reactor.event.dispatch.Dispatcher;
+import reactor.graph.Graph;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to create a {@literal Graph} of {@value #NODES} {@literal Nodes} on the synchronous
+ * {@literal Dispatcher}, one named {@literal Node} at a time or in bulk through {@link Graph#nodes(int)}. The raw
+ * {@literal Reactor} baseline creates one {@literal Reactor} per {@literal Node}, which is what a {@literal Graph} used
+ * to do.
+ * <p>
+ * Results are per {@literal Node}. Run with {@code -prof gc} to also get the heap allocated per {@literal Node} as
+ * {@code gc.alloc.rate.norm}. Nothing is thrown away while a {@literal Graph} is being built, apart from the names of
+ * the {@literal graph} benchmark, so this is close to the heap each {@literal Node} retains.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NodeCreationBenchmark {
+
+	static final int NODES = 100000;
+
+	Environment env;
+	Dispatcher  dispatcher;
+
+	@Setup
+	public void setup() {
+		env = new Environment();
+		dispatcher = env.getDispatcher("sync");
+	}
+
+	@TearDown
+	public void tearDown() {
+		env.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NODES)
+	public Object graph() {
+		Graph<Object> graph = Graph.create(env, dispatcher);
+		for(int i = 0; i < NODES; i++) {
+			graph.node("node-" + i);
+		}
+		return graph;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NODES)
+	public Object bulk() {
+		Graph<Object> graph = Graph.create(env, dispatcher);
+		graph.nodes(NODES);
+		return graph;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NODES)
+	public Object rawReactor() {
+		Reactor[] reactors = new Reactor[NODES];
+		for(int i = 0; i < NODES; i++) {
+			reactors[i] = Reactors.reactor(env, dispatcher);
+		}
+		return reactors;
+	}
+
+}
@@ -0,0 +1,117 @@
+package reactor.graph.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.Environment;
+import reactor.core.Reactor;
+import reactor.core.spec.Reactors;
+import reactor.event.Event;
+import reactor.event.selector.Selectors;
+import reactor.function.Consumer;
+import reactor.function.Predicate;
+import reactor.graph.Graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code when(...)}/{@code otherwise()} routing where the predicate matches a fraction {@code selectivity} of
+ * the values, on the synchronous {@literal Dispatcher}. The raw {@literal Reactor} baseline tests the predicate in a
+ * consumer and notifies one of two selectors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RoutingBenchmark {
+
+	static final int VALUES = 1024;
+
+	@Param({"0.1", "0.5", "0.9"})
+	public double selectivity;
+
+	Environment   env;
+	Graph<Double> graph;
+	Reactor       reactor;
+	Double[]      values;
+	int           next;
+	long          matched;
+	long          unmatched;
+
+	@Setup
+	public void setup() {
+		env = new Environment();
+
+		Random random = new Random(0);
+		values = new Double[VALUES];
+		for(int i = 0; i < VALUES; i++) {
+			values[i] = random.nextDouble();
+		}
+
+		final Predicate<Double> predicate = new Predicate<Double>() {
+			@Override
+			public boolean test(Double d) {
+				return d < selectivity;
+			}
+		};
+
+		graph = Graph.create(env, "sync");
+		graph.node("matched").consume(new Consumer<Double>() {
+			@Override
+			public void accept(Double d) {
+				matched++;
+			}
+		});
+		graph.node("unmatched").consume(new Consumer<Double>() {
+			@Override
+			public void accept(Double d) {
+				unmatched++;
+			}
+		});
+		graph.node("start")
+		     .when(predicate)
+		     .routeTo("matched")
+		     .otherwise()
+		     .routeTo("unmatched");
+		graph.startNode("start").compile();
+
+		reactor = Reactors.reactor(env, env.getDispatcher("sync"));
+		reactor.on(Selectors.$("start"), new Consumer<Event<Double>>() {
+			@Override
+			public void accept(Event<Double> ev) {
+				reactor.notify(predicate.test(ev.getData()) ? "matched" : "unmatched", ev);
+			}
+		});
+		reactor.on(Selectors.$("matched"), new Consumer<Event<Double>>() {
+			@Override
+			public void accept(Event<Double> ev) {
+				matched++;
+			}
+		});
+		reactor.on(Selectors.$("unmatched"), new Consumer<Event<Double>>() {
+			@Override
+			public void accept(Event<Double> ev) {
+				unmatched++;
+			}
+		});
+	}
+
+	@TearDown
+	public void tearDown() {
+		env.shutdown();
+	}
+
+	@Benchmark
+	public long graph() {
+		graph.accept(values[next++ & (VALUES - 1)]);
+		return matched;
+	}
+
+	@Benchmark
+	public long rawReactor() {
+		reactor.notify("start", Event.wrap(values[next++ & (VALUES - 1)]));
+		return matched;
+	}
+
+}
@@ -0,0 +1,108 @@
+package reactor.graph.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reactor.core.Environment;
+import reactor.function.Consumer;
+import reactor.function.Function;
+import reactor.function.Predicate;
+import reactor.graph.Graph;
+import reactor.graph.Route;
+import reactor.graph.Switch;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures routing each value to one of {@code branches} {@literal Nodes} on the synchronous {@literal Dispatcher},
+ * either through a chain of {@literal Nodes} each testing one branch with {@code when(...)} and passing the {@code
+ * otherwise()} values on to the next, or through a single {@code switchOn(...)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SwitchBenchmark {
+
+	static final int VALUES = 1024;
+
+	@Param({"2", "8", "32"})
+	public int branches;
+
+	Environment    env;
+	Graph<Integer> chained;
+	Graph<Integer> switched;
+	Integer[]      values;
+	int            next;
+	long           sink;
+
+	@Setup
+	public void setup() {
+		env = new Environment();
+
+		Random random = new Random(0);
+		values = new Integer[VALUES];
+		for(int i = 0; i < VALUES; i++) {
+			values[i] = random.nextInt(branches);
+		}
+
+		chained = createGraph();
+		for(int i = branches - 1; i >= 0; i--) {
+			final int branch = i;
+			Route<Integer> route = chained.node("test-" + i).when(new Predicate<Integer>() {
+				@Override
+				public boolean test(Integer value) {
+					return value == branch;
+				}
+			}).routeTo("branch-" + i);
+			if(i < branches - 1) {
+				route.otherwise().routeTo("test-" + (i + 1));
+			}
+		}
+		chained.startNode("test-0").compile();
+
+		switched = createGraph();
+		Switch<Integer, Integer> sw = switched.node("start").switchOn(new Function<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer value) {
+				return value;
+			}
+		});
+		for(int i = 0; i < branches; i++) {
+			sw.caseOf(i, "branch-" + i);
+		}
+		switched.startNode("start").compile();
+	}
+
+	@TearDown
+	public void tearDown() {
+		env.shutdown();
+	}
+
+	@Benchmark
+	public long chained() {
+		chained.accept(values[next++ & (VALUES - 1)]);
+		return sink;
+	}
+
+	@Benchmark
+	public long switched() {
+		switched.accept(values[next++ & (VALUES - 1)]);
+		return sink;
+	}
+
+	private Graph<Integer> createGraph() {
+		Graph<Integer> graph = Graph.create(env, "sync");
+		for(int i = 0; i < branches; i++) {
+			graph.node("branch-" + i).consume(new Consumer<Integer>() {
+				@Override
+				public void accept(Integer value) {
+					sink += value;
+				}
+			});
+		}
+		return graph;
+	}
+
+}
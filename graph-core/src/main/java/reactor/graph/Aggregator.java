@@ -0,0 +1,53 @@
+package reactor.graph;
+
+/**
+ * Folds values into an aggregate incrementally, as used by the windows of {@link Node#window(long, long,
+ * java.util.concurrent.TimeUnit, Aggregator)}. A window is split into panes, each of which folds its values into an
+ * aggregate of its own with {@link #add(Object, Object)}; the aggregate of a window is then the {@link #merge(Object,
+ * Object) merge} of its panes, so sliding a window never folds the same value twice. See {@link Aggregators} for the
+ * common aggregates.
+ * <p>
+ * Windows keep one aggregate per pane and replace it with the result of each {@literal add}, so an aggregate such as a
+ * boxed {@link Long} allocates once per value. The {@link Aggregators} avoid this by keeping their panes unboxed.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of values being aggregated
+ * @param <A>
+ * 		the type of the aggregate
+ */
+public interface Aggregator<T, A> {
+
+	/**
+	 * Get the aggregate of no values. It may be shared, so it must not be changed by {@link #add(Object, Object)} or
+	 * {@link #merge(Object, Object)}.
+	 *
+	 * @return the empty aggregate
+	 */
+	A zero();
+
+	/**
+	 * Fold a value into an aggregate.
+	 *
+	 * @param aggregate
+	 * 		the aggregate of the values so far
+	 * @param value
+	 * 		the value to fold in
+	 *
+	 * @return the aggregate including the value, which must not be {@literal null}
+	 */
+	A add(A aggregate, T value);
+
+	/**
+	 * Combine the aggregates of two consecutive panes.
+	 *
+	 * @param earlier
+	 * 		the aggregate of the earlier values
+	 * @param later
+	 * 		the aggregate of the later values
+	 *
+	 * @return the aggregate of both, which must not be {@literal null}
+	 */
+	A merge(A earlier, A later);
+
+}
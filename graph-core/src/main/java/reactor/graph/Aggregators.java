@@ -0,0 +1,191 @@
+package reactor.graph;
+
+import reactor.graph.function.ToDoubleFunction;
+
+/**
+ * Common {@link Aggregator Aggregators} for the windows of {@link Node#window(long, long,
+ * java.util.concurrent.TimeUnit, Aggregator)}. Windows keep the aggregates of these in primitive arrays and update them
+ * in place, so folding a value into a window does not allocate; only the published aggregate of a window is boxed.
+ */
+public abstract class Aggregators {
+
+	protected Aggregators() {
+	}
+
+	/**
+	 * Create an {@link Aggregator} counting values.
+	 *
+	 * @param <T>
+	 * 		the type of values being counted
+	 *
+	 * @return the new {@literal Aggregator}
+	 */
+	public static <T> Aggregator<T, Long> count() {
+		return new LongAggregator<T>() {
+			@Override
+			long zeroLong() {
+				return 0L;
+			}
+
+			@Override
+			long addLong(long count, T value) {
+				return count + 1;
+			}
+
+			@Override
+			long mergeLong(long earlier, long later) {
+				return earlier + later;
+			}
+		};
+	}
+
+	/**
+	 * Create an {@link Aggregator} adding up the value the given function extracts from each value.
+	 *
+	 * @param fn
+	 * 		the function extracting the value to add up
+	 * @param <T>
+	 * 		the type of values being aggregated
+	 *
+	 * @return the new {@literal Aggregator}
+	 */
+	public static <T> Aggregator<T, Double> sum(final ToDoubleFunction<? super T> fn) {
+		return new DoubleAggregator<T>() {
+			@Override
+			double zeroDouble() {
+				return 0d;
+			}
+
+			@Override
+			double addDouble(double sum, T value) {
+				return sum + fn.applyAsDouble(value);
+			}
+
+			@Override
+			double mergeDouble(double earlier, double later) {
+				return earlier + later;
+			}
+		};
+	}
+
+	/**
+	 * Create an {@link Aggregator} keeping the smallest of the values the given function extracts from each value.
+	 *
+	 * @param fn
+	 * 		the function extracting the value to compare
+	 * @param <T>
+	 * 		the type of values being aggregated
+	 *
+	 * @return the new {@literal Aggregator}
+	 */
+	public static <T> Aggregator<T, Double> min(final ToDoubleFunction<? super T> fn) {
+		return new DoubleAggregator<T>() {
+			@Override
+			double zeroDouble() {
+				return Double.POSITIVE_INFINITY;
+			}
+
+			@Override
+			double addDouble(double min, T value) {
+				double d = fn.applyAsDouble(value);
+				return (d < min ? d : min);
+			}
+
+			@Override
+			double mergeDouble(double earlier, double later) {
+				return Math.min(earlier, later);
+			}
+		};
+	}
+
+	/**
+	 * Create an {@link Aggregator} keeping the largest of the values the given function extracts from each value.
+	 *
+	 * @param fn
+	 * 		the function extracting the value to compare
+	 * @param <T>
+	 * 		the type of values being aggregated
+	 *
+	 * @return the new {@literal Aggregator}
+	 */
+	public static <T> Aggregator<T, Double> max(final ToDoubleFunction<? super T> fn) {
+		return new DoubleAggregator<T>() {
+			@Override
+			double zeroDouble() {
+				return Double.NEGATIVE_INFINITY;
+			}
+
+			@Override
+			double addDouble(double max, T value) {
+				double d = fn.applyAsDouble(value);
+				return (d > max ? d : max);
+			}
+
+			@Override
+			double mergeDouble(double earlier, double later) {
+				return Math.max(earlier, later);
+			}
+		};
+	}
+
+	/**
+	 * An {@link Aggregator} whose aggregate is a {@code long}, which windows keep unboxed. Its boxed methods are only
+	 * used when it is called directly.
+	 *
+	 * @param <T>
+	 * 		the type of values being aggregated
+	 */
+	abstract static class LongAggregator<T> implements Aggregator<T, Long> {
+		abstract long zeroLong();
+
+		abstract long addLong(long aggregate, T value);
+
+		abstract long mergeLong(long earlier, long later);
+
+		@Override
+		public Long zero() {
+			return zeroLong();
+		}
+
+		@Override
+		public Long add(Long aggregate, T value) {
+			return addLong(aggregate, value);
+		}
+
+		@Override
+		public Long merge(Long earlier, Long later) {
+			return mergeLong(earlier, later);
+		}
+	}
+
+	/**
+	 * An {@link Aggregator} whose aggregate is a {@code double}, which windows keep unboxed. Its boxed methods are only
+	 * used when it is called directly.
+	 *
+	 * @param <T>
+	 * 		the type of values being aggregated
+	 */
+	abstract static class DoubleAggregator<T> implements Aggregator<T, Double> {
+		abstract double zeroDouble();
+
+		abstract double addDouble(double aggregate, T value);
+
+		abstract double mergeDouble(double earlier, double later);
+
+		@Override
+		public Double zero() {
+			return zeroDouble();
+		}
+
+		@Override
+		public Double add(Double aggregate, T value) {
+			return addDouble(aggregate, value);
+		}
+
+		@Override
+		public Double merge(Double earlier, Double later) {
+			return mergeDouble(earlier, later);
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+package reactor.graph;
+
+import reactor.core.Reactor;
+import reactor.event.Event;
+import reactor.function.Consumer;
+import reactor.timer.Timer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the values coming into a {@link Node} into batches which are published to a target {@literal Node} when
+ * they are full or when the oldest value in the batch has waited for the maximum delay, whichever happens first.
+ * <p>
+ * Batch buffers are recycled: once the target {@literal Node} has processed a batch, the {@literal List} is cleared
+ * and reused for a later batch. Consumers of the batch must therefore copy it if they need to keep it.
+ * </p>
+ * <p>
+ * Partial batches share a single timeout task, and at most one timeout is pending at a time. When it fires for a batch
+ * that has since been published, it is set again for the rest of the current batch's delay, so waiting for a batch
+ * allocates nothing here beyond what the {@literal Timer} needs to hold the task.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of values being batched
+ */
+final class BatchingConsumer<T> implements Consumer<Event<T>> {
+
+	private final ArrayDeque<List<T>> freeBatches = new ArrayDeque<>();
+
+	private final int           maxSize;
+	private final long          maxDelayMillis;
+	private final Node<List<T>> target;
+	private final Reactor       reactor;
+	private final Timer         timer;
+	private final EventPool     pool;
+
+	private final Consumer<Long> flush = new Consumer<Long>() {
+		@Override
+		public void accept(Long now) {
+			List<T> batch;
+			long delayMillis;
+			synchronized(BatchingConsumer.this) {
+				timerPending = false;
+				if(current.isEmpty()) {
+					// the batch the timer was set for has already been published because it filled up
+					return;
+				}
+				long remainingNanos = deadline - System.nanoTime();
+				if(remainingNanos <= 0) {
+					batch = swap();
+					delayMillis = 0;
+				} else {
+					// the timer was set for an earlier batch, so wait for what is left of this one's delay
+					batch = null;
+					delayMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+					timerPending = true;
+				}
+			}
+			if(null != batch) {
+				publish(batch);
+			} else {
+				timer.submit(timeout, delayMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+	};
+
+	private final Consumer<Long> timeout = new Consumer<Long>() {
+		@Override
+		public void accept(Long now) {
+			// the timer runs on its own thread, so hand the flush back to the Node's Dispatcher
+			reactor.schedule(flush, now);
+		}
+	};
+
+	private List<T> current;
+	private long    deadline;
+	private boolean timerPending;
+
+	BatchingConsumer(int maxSize, long maxDelayMillis, Node<List<T>> target, Reactor reactor, Timer timer) {
+		this.maxSize = maxSize;
+		this.maxDelayMillis = maxDelayMillis;
+		this.target = target;
+		this.reactor = reactor;
+		this.timer = timer;
+		this.pool = target.getGraph().getEventPool();
+		this.current = new ArrayList<>(maxSize);
+	}
+
+	@Override
+	public void accept(Event<T> ev) {
+		List<T> batch = null;
+		boolean setTimer = false;
+		synchronized(this) {
+			current.add(ev.getData());
+			if(current.size() >= maxSize) {
+				batch = swap();
+			} else if(current.size() == 1 && maxDelayMillis > 0) {
+				deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+				// at most one timer is pending, and it checks the deadline of whichever batch is current when it fires
+				if(!timerPending) {
+					timerPending = true;
+					setTimer = true;
+				}
+			}
+		}
+		if(null != batch) {
+			publish(batch);
+		} else if(setTimer) {
+			timer.submit(timeout, maxDelayMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private List<T> swap() {
+		List<T> batch = current;
+		List<T> next = freeBatches.poll();
+		current = (null != next ? next : new ArrayList<T>(maxSize));
+		return batch;
+	}
+
+	private void publish(List<T> batch) {
+		Event<List<T>> ev = pool.acquire(batch);
+		try {
+			target.invokeValue(ev);
+		} finally {
+			pool.release(ev);
+			batch.clear();
+			synchronized(this) {
+				freeBatches.offer(batch);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package reactor.graph;
+
+import reactor.function.Function;
+
+/**
+ * A {@link reactor.function.Function} that remembers its results, so that an expensive, pure function is applied once
+ * per distinct value rather than once per event. At most {@code maxEntries} results are kept, chosen by a
+ * frequency-aware policy that favors the values seen most often. Values are compared with {@code equals}, and the
+ * result for a {@literal null} value is never cached.
+ *
+ * @param <T>
+ * 		the type of the input values
+ * @param <V>
+ * 		the type of the results
+ */
+public class CachedFunction<T, V> implements Function<T, V> {
+
+	private final TinyLfuCache<T, V> cache;
+	private final Function<T, V>     fn;
+
+	/**
+	 * Create a {@literal CachedFunction} remembering the results of the given {@link reactor.function.Function}.
+	 *
+	 * @param fn
+	 * 		the function, which must always return the same result for equal values
+	 * @param maxEntries
+	 * 		the maximum number of results to keep
+	 */
+	public CachedFunction(Function<T, V> fn, int maxEntries) {
+		this.cache = new TinyLfuCache<>(maxEntries);
+		this.fn = fn;
+	}
+
+	@Override
+	public V apply(T t) {
+		return cache.get(t, fn);
+	}
+
+	/**
+	 * Get the number of values whose result was found in the cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * Get the number of values whose result had to be computed.
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Get the number of results that have been dropped from the cache, or never admitted to it, to respect its size.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+
+	/**
+	 * Get the number of results currently cached.
+	 *
+	 * @return the number of cached results
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	@Override
+	public String toString() {
+		return "CachedFunction{" +
+				"hits=" + getHitCount() +
+				", misses=" + getMissCount() +
+				", evictions=" + getEvictionCount() +
+				", size=" + size() +
+				'}';
+	}
+
+}
@@ -0,0 +1,86 @@
+package reactor.graph;
+
+import reactor.function.Function;
+import reactor.function.Predicate;
+
+/**
+ * A {@link reactor.function.Predicate} that remembers its results, so that an expensive, pure test runs once per
+ * distinct value rather than once per event.
+ *
+ * @param <T>
+ * 		the type of the tested values
+ * @see CachedFunction
+ */
+public class CachedPredicate<T> implements Predicate<T> {
+
+	private final CachedFunction<T, Boolean> fn;
+
+	/**
+	 * Create a {@literal CachedPredicate} remembering the results of the given {@link reactor.function.Predicate}.
+	 *
+	 * @param predicate
+	 * 		the test, which must always give the same result for equal values
+	 * @param maxEntries
+	 * 		the maximum number of results to keep
+	 */
+	public CachedPredicate(final Predicate<T> predicate, int maxEntries) {
+		this.fn = new CachedFunction<>(new Function<T, Boolean>() {
+			@Override
+			public Boolean apply(T t) {
+				return predicate.test(t);
+			}
+		}, maxEntries);
+	}
+
+	@Override
+	public boolean test(T t) {
+		return fn.apply(t);
+	}
+
+	/**
+	 * Get the number of values whose result was found in the cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return fn.getHitCount();
+	}
+
+	/**
+	 * Get the number of values that had to be tested.
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return fn.getMissCount();
+	}
+
+	/**
+	 * Get the number of results that have been dropped from the cache, or never admitted to it, to respect its size.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return fn.getEvictionCount();
+	}
+
+	/**
+	 * Get the number of results currently cached.
+	 *
+	 * @return the number of cached results
+	 */
+	public int size() {
+		return fn.size();
+	}
+
+	@Override
+	public String toString() {
+		return "CachedPredicate{" +
+				"hits=" + getHitCount() +
+				", misses=" + getMissCount() +
+				", evictions=" + getEvictionCount() +
+				", size=" + size() +
+				'}';
+	}
+
+}
@@ -0,0 +1,260 @@
+package reactor.graph;
+
+import reactor.event.Event;
+import reactor.function.Predicate;
+import reactor.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@literal Choice} routes each value coming into a {@link Node} to the {@literal Node} of the first branch whose
+ * {@link reactor.function.Predicate} it passes, or to the {@link #otherwise(String) otherwise} {@literal Node} if it
+ * passes none. Branches are tested in the order they were added.
+ * <p>
+ * When the branches are mutually exclusive, so that at most one of them can pass any value, the order in which they
+ * are tested does not change where a value goes, only how many predicates it runs. In that case {@link #adaptive(int)}
+ * lets the {@literal Choice} track how often each branch passes and how long its predicate takes, and periodically
+ * reorder the branches so the cheapest and most selective are tested first. The statistics are sampled and updated
+ * without synchronization, so they are approximate.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of the routed values
+ */
+public class Choice<T> {
+
+	/**
+	 * The cost of a predicate is measured on one in every {@code SAMPLE_MASK + 1} values.
+	 */
+	static final int SAMPLE_MASK = 15;
+
+	private final Node<T> node;
+
+	private volatile Branch<T>[] branches;
+	private volatile Branch<T>[] order;
+	private volatile Target<T>   otherwise;
+	private volatile int         interval;
+	private          int         evaluations;
+	private          long        recent;
+
+	@SuppressWarnings("unchecked")
+	Choice(Node<T> node) {
+		this.node = node;
+		this.branches = new Branch[0];
+		this.order = branches;
+	}
+
+	/**
+	 * Add a branch routing values that pass the given test to the named {@literal Node}, which must already exist in the
+	 * {@literal Graph}.
+	 *
+	 * @param predicate
+	 * 		the test
+	 * @param nodeName
+	 * 		name of the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	public Choice<T> when(Predicate<T> predicate, String nodeName) {
+		return when(predicate, (Node<T>)node.getGraph().getNode(nodeName));
+	}
+
+	/**
+	 * Add a branch routing values that pass the given test to the given {@literal Node}, which must belong to the same
+	 * {@literal Graph}.
+	 *
+	 * @param predicate
+	 * 		the test
+	 * @param target
+	 * 		the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	public synchronized Choice<T> when(Predicate<T> predicate, Node<T> target) {
+		node.getGraph().assertNotCompiled();
+		Branch<T>[] newBranches = Arrays.copyOf(branches, branches.length + 1);
+		newBranches[branches.length] = new Branch<>(branches.length, predicate, Target.of(node, target));
+		Branch<T>[] newOrder = Arrays.copyOf(order, order.length + 1);
+		newOrder[order.length] = newBranches[branches.length];
+		branches = newBranches;
+		order = newOrder;
+		return this;
+	}
+
+	/**
+	 * Route values that pass no branch to the named {@literal Node}, which must already exist in the {@literal Graph}.
+	 *
+	 * @param nodeName
+	 * 		name of the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	public Choice<T> otherwise(String nodeName) {
+		return otherwise((Node<T>)node.getGraph().getNode(nodeName));
+	}
+
+	/**
+	 * Route values that pass no branch to the given {@literal Node}, which must belong to the same {@literal Graph}.
+	 *
+	 * @param target
+	 * 		the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	public Choice<T> otherwise(Node<T> target) {
+		node.getGraph().assertNotCompiled();
+		Assert.state(null == otherwise, "An otherwise Node has already been set.");
+		this.otherwise = Target.of(node, target);
+		return this;
+	}
+
+	/**
+	 * Reorder the branches every {@code interval} values, testing first those whose predicate costs the least per value
+	 * it passes. Only use this if no value can pass more than one branch, since reordering would otherwise change where
+	 * values go.
+	 *
+	 * @param interval
+	 * 		the number of values between reorderings
+	 *
+	 * @return {@literal this}
+	 */
+	public Choice<T> adaptive(int interval) {
+		node.getGraph().assertNotCompiled();
+		Assert.isTrue(interval > 0, "Interval must be greater than 0.");
+		this.interval = interval;
+		return this;
+	}
+
+	/**
+	 * Get the order in which the branches are currently tested, as the positions in which they were added.
+	 *
+	 * @return the indexes of the branches, in the order they are tested
+	 */
+	public List<Integer> getOrder() {
+		Branch<T>[] order = this.order;
+		List<Integer> indexes = new ArrayList<>(order.length);
+		for(Branch<T> branch : order) {
+			indexes.add(branch.index);
+		}
+		return Collections.unmodifiableList(indexes);
+	}
+
+	/**
+	 * Hand the given event to the {@literal Node} of the first branch it passes.
+	 *
+	 * @param ev
+	 * 		the event to route
+	 */
+	void route(Event<T> ev) {
+		T data = ev.getData();
+		Target<T> target = (interval > 0 ? testAdaptive(data) : test(data));
+		if(null != target) {
+			target.accept(ev);
+		}
+	}
+
+	private Target<T> test(T data) {
+		for(Branch<T> branch : order) {
+			if(branch.predicate.test(data)) {
+				return branch.target;
+			}
+		}
+		return otherwise;
+	}
+
+	private Target<T> testAdaptive(T data) {
+		int n = ++evaluations;
+		if(n % interval == 0) {
+			reorder();
+		}
+		recent++;
+		boolean timed = (n & SAMPLE_MASK) == 0;
+		for(Branch<T> branch : order) {
+			boolean passed;
+			if(timed) {
+				long start = System.nanoTime();
+				passed = branch.predicate.test(data);
+				branch.nanos += System.nanoTime() - start;
+				branch.timed++;
+			} else {
+				passed = branch.predicate.test(data);
+			}
+			if(passed) {
+				branch.hits++;
+				return branch.target;
+			}
+		}
+		return otherwise;
+	}
+
+	private synchronized void reorder() {
+		Branch<T>[] newOrder = order.clone();
+		double totalCost = 0;
+		int measured = 0;
+		for(Branch<T> branch : newOrder) {
+			if(branch.timed > 0) {
+				branch.cost = (double)branch.nanos / branch.timed;
+			}
+			if(branch.cost > 0) {
+				totalCost += branch.cost;
+				measured++;
+			}
+		}
+		// a branch whose cost has not been measured yet is assumed to cost as much as the average one
+		double defaultCost = (measured > 0 ? totalCost / measured : 1.0);
+		for(Branch<T> branch : newOrder) {
+			branch.rank = branch.rank(defaultCost, recent);
+		}
+		// testing exclusive branches in order of cost over pass rate minimizes the expected cost per value
+		Arrays.sort(newOrder, new Comparator<Branch<T>>() {
+			@Override
+			public int compare(Branch<T> b1, Branch<T> b2) {
+				return Double.compare(b1.rank, b2.rank);
+			}
+		});
+		for(Branch<T> branch : newOrder) {
+			branch.decay();
+		}
+		recent >>= 1;
+		order = newOrder;
+	}
+
+	private static final class Branch<T> {
+		final int          index;
+		final Predicate<T> predicate;
+		final Target<T>    target;
+		long   hits;
+		long   timed;
+		long   nanos;
+		double cost;
+		double rank;
+
+		Branch(int index, Predicate<T> predicate, Target<T> target) {
+			this.index = index;
+			this.predicate = predicate;
+			this.target = target;
+		}
+
+		double rank(double defaultCost, long values) {
+			double cost = (this.cost > 0 ? this.cost : defaultCost);
+			// the share of all values that pass, not just of those that got this far, so that a branch tested last does
+			// not look like it passes everything; with few values seen yet it is assumed to pass half the time
+			double passRate = (hits + 1.0) / (values + 2.0);
+			return cost / passRate;
+		}
+
+		void decay() {
+			// halve the statistics so that the order follows changes in the traffic
+			hits >>= 1;
+			timed >>= 1;
+			nanos >>= 1;
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package reactor.graph;
+
+import reactor.util.Assert;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estimates the number of distinct keys counted, as maintained by {@link Node#countDistinct(reactor.function.Function,
+ * int)}.
+ * <p>
+ * Every thread that counts a key adds it to a {@link HyperLogLog} sketch of its own, so {@literal Dispatcher} threads
+ * never contend with each other. Reading the count merges the sketches of all threads into a new one, which can be
+ * read while keys are still being counted. Each sketch has a lock which is only ever contended by readers.
+ * </p>
+ *
+ * @param <K>
+ * 		the type of the keys
+ */
+public class DistinctCounter<K> {
+
+	private final CopyOnWriteArrayList<Stripe> stripes = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Stripe>          local   = new ThreadLocal<Stripe>() {
+		@Override
+		protected Stripe initialValue() {
+			Stripe stripe = new Stripe(new HyperLogLog(precision));
+			stripes.add(stripe);
+			return stripe;
+		}
+	};
+	private final int precision;
+
+	DistinctCounter(int precision) {
+		Assert.isTrue(precision >= HyperLogLog.MIN_PRECISION && precision <= HyperLogLog.MAX_PRECISION,
+		              "Precision must be between " + HyperLogLog.MIN_PRECISION + " and " + HyperLogLog.MAX_PRECISION + ".");
+		this.precision = precision;
+	}
+
+	/**
+	 * Count the given key.
+	 *
+	 * @param key
+	 * 		the key, which must not be {@literal null}
+	 */
+	void add(K key) {
+		Stripe stripe = local.get();
+		stripe.lock.lock();
+		try {
+			stripe.sketch.add(key);
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the precision of the sketches.
+	 *
+	 * @return the precision of the sketches
+	 */
+	public int getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Estimate the number of distinct keys counted so far.
+	 *
+	 * @return the estimated number of distinct keys
+	 */
+	public long cardinality() {
+		return snapshot().cardinality();
+	}
+
+	/**
+	 * Get a sketch of the keys counted so far, for example to {@link HyperLogLog#merge(HyperLogLog) merge} it with the
+	 * sketches of other partitions or windows.
+	 *
+	 * @return a new {@link HyperLogLog} holding the keys of all threads
+	 */
+	public HyperLogLog snapshot() {
+		return drain(false);
+	}
+
+	/**
+	 * Get a sketch of the keys counted so far and start over, for example to count distinct keys per minute.
+	 *
+	 * @return a new {@link HyperLogLog} holding the keys of all threads
+	 */
+	public HyperLogLog snapshotAndReset() {
+		return drain(true);
+	}
+
+	@Override
+	public String toString() {
+		return "DistinctCounter{precision=" + precision + ", cardinality=" + cardinality() + "}";
+	}
+
+	private HyperLogLog drain(boolean reset) {
+		HyperLogLog merged = new HyperLogLog(precision);
+		for(Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				merged.merge(stripe.sketch);
+				if(reset) {
+					stripe.sketch.clear();
+				}
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		return merged;
+	}
+
+	private static final class Stripe {
+		final ReentrantLock lock = new ReentrantLock();
+		final HyperLogLog sketch;
+
+		Stripe(HyperLogLog sketch) {
+			this.sketch = sketch;
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+package reactor.graph;
+
+import reactor.core.Environment;
+import reactor.event.dispatch.Dispatcher;
+import reactor.util.Assert;
+import reactor.util.UUIDUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@literal DoubleGraph} is a {@link Graph} whose incoming data are primitive {@code double} values. It is made up of
+ * {@link DoubleNode DoubleNodes}, which pass values between stages without boxing them, so purely numeric graphs such as
+ * counters, latencies or prices process values without allocating.
+ */
+public class DoubleGraph {
+
+	private final Map<String, DoubleNode> nodes = new ConcurrentHashMap<>();
+
+	private final Graph<?> graph;
+	private       DoubleNode startNode;
+
+	private DoubleGraph(Graph<?> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Create a {@literal DoubleGraph} with the given {@link reactor.core.Environment}.
+	 *
+	 * @param env
+	 * 		the {@link reactor.core.Environment} to use
+	 *
+	 * @return the new {@literal DoubleGraph}
+	 */
+	public static DoubleGraph create(Environment env) {
+		return new DoubleGraph(Graph.create(env));
+	}
+
+	/**
+	 * Create a {@literal DoubleGraph} with the given {@link reactor.core.Environment} and assigning the given {@literal
+	 * Dispatcher} as a default if no other {@literal Dispatcher} is specified at {@literal DoubleNode} creation.
+	 *
+	 * @param env
+	 * 		the {@link reactor.core.Environment} to use
+	 * @param dispatcher
+	 * 		the name of the {@link reactor.event.dispatch.Dispatcher} to use
+	 *
+	 * @return the new {@literal DoubleGraph}
+	 */
+	public static DoubleGraph create(Environment env, String dispatcher) {
+		return new DoubleGraph(Graph.create(env, dispatcher));
+	}
+
+	/**
+	 * Create a {@literal DoubleGraph} with the given {@link reactor.core.Environment} and assigning the given {@literal
+	 * Dispatcher} as a default if no other {@literal Dispatcher} is specified at {@literal DoubleNode} creation.
+	 *
+	 * @param env
+	 * 		the {@link reactor.core.Environment} to use
+	 * @param dispatcher
+	 * 		the {@link reactor.event.dispatch.Dispatcher} to use
+	 *
+	 * @return the new {@literal DoubleGraph}
+	 */
+	public static DoubleGraph create(Environment env, Dispatcher dispatcher) {
+		return new DoubleGraph(Graph.create(env, dispatcher));
+	}
+
+	/**
+	 * Use the named {@literal DoubleNode} as the initial, starting {@literal DoubleNode} when new data comes into the
+	 * {@literal DoubleGraph}.
+	 *
+	 * @param name
+	 * 		the {@literal DoubleNode} to use as the {@literal DoubleNode} which receives incoming data
+	 *
+	 * @return {@literal this}
+	 */
+	public DoubleGraph startNode(String name) {
+		graph.assertNotCompiled();
+		Assert.isTrue(nodes.containsKey(name), "No DoubleNode named '" + name + "' found.");
+		this.startNode = nodes.get(name);
+		return this;
+	}
+
+	/**
+	 * Create a new {@literal DoubleNode} in this {@literal DoubleGraph} with a generated, UUID name.
+	 *
+	 * @return the new {@literal DoubleNode}
+	 */
+	public DoubleNode node() {
+		return node(UUIDUtils.create().toString(), null);
+	}
+
+	/**
+	 * Create a new {@literal DoubleNode} in this {@literal DoubleGraph} with the given name.
+	 *
+	 * @param name
+	 * 		the name of the new {@literal DoubleNode}
+	 *
+	 * @return the new {@literal DoubleNode}
+	 */
+	public DoubleNode node(String name) {
+		return node(name, null);
+	}
+
+	/**
+	 * Create a new {@literal DoubleNode} in this {@literal DoubleGraph} with the given name and using the given {@literal
+	 * Dispatcher} when dispatching tasks.
+	 *
+	 * @param name
+	 * 		the name of the new {@literal DoubleNode}
+	 * @param dispatcher
+	 * 		the {@literal Dispatcher} to use
+	 *
+	 * @return the new {@literal DoubleNode}
+	 */
+	public DoubleNode node(String name, Dispatcher dispatcher) {
+		Assert.isTrue(!nodes.containsKey(name), "A DoubleNode is already created with name '" + name + "'");
+		DoubleNode node = graph.createDoubleNode(name, graph.getReactor(dispatcher));
+		nodes.put(name, node);
+		return node;
+	}
+
+	/**
+	 * Freeze the topology of this {@literal DoubleGraph}.
+	 *
+	 * @return {@literal this}
+	 *
+	 * @see Graph#compile()
+	 */
+	public synchronized DoubleGraph compile() {
+		resolveStartNode();
+		graph.freeze();
+		return this;
+	}
+
+	/**
+	 * Whether this {@literal DoubleGraph} has been compiled.
+	 *
+	 * @return {@literal true} if {@link #compile()} has been called, {@literal false} otherwise
+	 */
+	public boolean isCompiled() {
+		return graph.isCompiled();
+	}
+
+	/**
+	 * Accept a value into this {@literal DoubleGraph}.
+	 *
+	 * @param value
+	 * 		the value to accept
+	 */
+	public void accept(double value) {
+		if(!graph.isCompiled()) {
+			resolveStartNode();
+		}
+		startNode.notifyValue(value);
+	}
+
+	private void resolveStartNode() {
+		if(null == startNode && nodes.size() == 1) {
+			startNode = nodes.values().iterator().next();
+		}
+		Assert.notNull(startNode, "No initial starting DoubleNode specified. Call DoubleGraph.startNode(String) to set one.");
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleGraph{" +
+				"nodes=" + nodes +
+				", startNode=" + startNode +
+				'}';
+	}
+
+}
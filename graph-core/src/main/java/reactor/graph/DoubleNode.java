@@ -0,0 +1,223 @@
+package reactor.graph;
+
+import reactor.core.Reactor;
+import reactor.event.Event;
+import reactor.event.dispatch.Dispatcher;
+import reactor.function.Consumer;
+import reactor.graph.function.DoubleConsumer;
+import reactor.graph.function.DoublePredicate;
+import reactor.graph.function.DoubleUnaryOperator;
+
+/**
+ * A {@literal DoubleNode} is a {@link Node} specialized for primitive {@code double} values. Values are passed between
+ * stages as plain {@code double} arguments and carried across {@literal Dispatchers} in the primitive slot of a pooled
+ * event, so numeric paths such as counters and latencies never box their values.
+ * @see DoubleGraph
+ * @see Node#mapToDouble(reactor.graph.function.ToDoubleFunction)
+ */
+public class DoubleNode {
+
+	private final DoubleSubscribers valueSubscribers = new DoubleSubscribers();
+	private final ErrorRouter       errorRouter      = new ErrorRouter();
+
+	private final String   name;
+	private final Graph<?> graph;
+	private final Reactor  reactor;
+
+	private final Consumer<Event<?>> dispatchedValue = new Consumer<Event<?>>() {
+		@Override
+		public void accept(Event<?> ev) {
+			try {
+				valueSubscribers.accept(((PooledEvent<?>)ev).getDouble());
+			} finally {
+				graph.getEventPool().release(ev);
+			}
+		}
+	};
+
+	DoubleNode(String name, Graph<?> graph, Reactor reactor) {
+		this.name = name;
+		this.graph = graph;
+		this.reactor = reactor;
+	}
+
+	/**
+	 * Get the name of this {@literal DoubleNode}.
+	 *
+	 * @return this DoubleNode's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Create a {@literal Node} that will receive errors of the given type raised while processing values in this
+	 * {@literal DoubleNode}.
+	 *
+	 * @param errorType
+	 * 		the type of error to handle
+	 * @param <X>
+	 * 		the type of error
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <X extends Throwable> Node<X> when(Class<X> errorType) {
+		graph.assertNotCompiled();
+		Node<X> newNode = graph.createNode(null, reactor);
+		errorRouter.add(errorType, newNode);
+		return newNode;
+	}
+
+	/**
+	 * Create a {@link DoubleRoute} that will publish values that pass the given {@link
+	 * reactor.graph.function.DoublePredicate} test and publish values that fail the test into the route's {@link
+	 * DoubleRoute#otherwise()} {@literal DoubleRoute}.
+	 *
+	 * @param predicate
+	 * 		the {@link reactor.graph.function.DoublePredicate} test
+	 *
+	 * @return a new {@link DoubleRoute}
+	 */
+	public DoubleRoute when(final DoublePredicate predicate) {
+		final DoubleRoute route = new DoubleRoute(this);
+		consumeValue(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				if(predicate.test(value)) {
+					route.invokeValue(value);
+				} else {
+					route.invokeOtherwise(value);
+				}
+			}
+		});
+		return route;
+	}
+
+	/**
+	 * Transform the values coming into this {@literal DoubleNode} by applying the given {@link
+	 * reactor.graph.function.DoubleUnaryOperator}.
+	 *
+	 * @param operator
+	 * 		the transformation
+	 *
+	 * @return a new {@literal DoubleNode}
+	 */
+	public DoubleNode then(final DoubleUnaryOperator operator) {
+		final DoubleNode newNode = createChild();
+		consumeValue(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				double result;
+				try {
+					result = operator.applyAsDouble(value);
+				} catch(Throwable t) {
+					newNode.invokeError(t);
+					return;
+				}
+				newNode.invokeValue(result);
+			}
+		});
+		return newNode;
+	}
+
+	/**
+	 * Consume values coming into this {@literal DoubleNode}.
+	 *
+	 * @param consumer
+	 * 		the {@link reactor.graph.function.DoubleConsumer} that will consume values
+	 *
+	 * @return {@literal this}
+	 */
+	public DoubleNode consume(final DoubleConsumer consumer) {
+		consumeValue(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				try {
+					consumer.accept(value);
+				} catch(Throwable t) {
+					invokeError(t);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Box the values coming into this {@literal DoubleNode} so they can be processed by a regular {@link Node}.
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public Node<Double> boxed() {
+		final Node<Double> newNode = graph.createNode(null, reactor);
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				Event<Double> ev = pool.acquire(value);
+				try {
+					newNode.invokeValue(ev);
+				} finally {
+					pool.release(ev);
+				}
+			}
+		});
+		return newNode;
+	}
+
+	Graph<?> getGraph() {
+		return graph;
+	}
+
+	Dispatcher getDispatcher() {
+		return reactor.getDispatcher();
+	}
+
+	/**
+	 * Hand a value to this {@literal DoubleNode} from outside its {@link reactor.event.dispatch.Dispatcher}, which costs
+	 * one dispatch.
+	 *
+	 * @param value
+	 * 		the value to publish
+	 */
+	void notifyValue(double value) {
+		reactor.schedule(dispatchedValue, graph.getEventPool().acquireDouble(value));
+	}
+
+	/**
+	 * Hand a value to this {@literal DoubleNode} from a stage already running on its {@link
+	 * reactor.event.dispatch.Dispatcher}.
+	 *
+	 * @param value
+	 * 		the value to publish
+	 */
+	void invokeValue(double value) {
+		valueSubscribers.accept(value);
+	}
+
+	void invokeError(Throwable t) {
+		EventPool pool = graph.getEventPool();
+		Event<Throwable> ev = pool.acquire(t);
+		try {
+			errorRouter.route(ev);
+		} finally {
+			pool.release(ev);
+		}
+	}
+
+	void consumeValue(DoubleConsumer consumer) {
+		graph.assertNotCompiled();
+		valueSubscribers.add(consumer);
+	}
+
+	DoubleNode createChild() {
+		return graph.createDoubleNode(null, reactor);
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleNode{" +
+				"name='" + name + '\'' +
+				'}';
+	}
+
+}
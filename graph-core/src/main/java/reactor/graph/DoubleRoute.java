@@ -0,0 +1,110 @@
+package reactor.graph;
+
+import reactor.graph.function.DoubleConsumer;
+import reactor.graph.function.DoubleUnaryOperator;
+
+/**
+ * A {@literal DoubleRoute} is a {@link Route} specialized for primitive {@code double} values.
+ */
+public class DoubleRoute {
+
+	private final DoubleSubscribers valueSubscribers     = new DoubleSubscribers();
+	private final DoubleSubscribers otherwiseSubscribers = new DoubleSubscribers();
+
+	private final DoubleNode node;
+
+	DoubleRoute(DoubleNode node) {
+		this.node = node;
+	}
+
+	/**
+	 * Consume values passing through this {@literal DoubleRoute}.
+	 *
+	 * @param consumer
+	 * 		the {@literal DoubleConsumer} which will consume values
+	 *
+	 * @return {@literal this}
+	 */
+	public DoubleRoute consume(final DoubleConsumer consumer) {
+		consumeValue(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				try {
+					consumer.accept(value);
+				} catch(Throwable t) {
+					node.invokeError(t);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Transform values coming into this {@literal DoubleRoute} by applying the given {@link
+	 * reactor.graph.function.DoubleUnaryOperator}.
+	 *
+	 * @param operator
+	 * 		the transformation
+	 *
+	 * @return the new {@literal DoubleRoute}
+	 */
+	public DoubleRoute then(final DoubleUnaryOperator operator) {
+		final DoubleRoute newRoute = new DoubleRoute(node);
+		consumeValue(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				double result;
+				try {
+					result = operator.applyAsDouble(value);
+				} catch(Throwable t) {
+					node.invokeError(t);
+					return;
+				}
+				newRoute.invokeValue(result);
+			}
+		});
+		consumeOtherwise(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				newRoute.invokeOtherwise(value);
+			}
+		});
+		return newRoute;
+	}
+
+	/**
+	 * Capture values coming into this {@literal DoubleRoute} that have failed the {@link
+	 * reactor.graph.function.DoublePredicate} test which created this {@literal DoubleRoute}.
+	 *
+	 * @return the new {@literal DoubleRoute}
+	 */
+	public DoubleRoute otherwise() {
+		final DoubleRoute newRoute = new DoubleRoute(node);
+		consumeOtherwise(new DoubleConsumer() {
+			@Override
+			public void accept(double value) {
+				newRoute.invokeValue(value);
+			}
+		});
+		return newRoute;
+	}
+
+	void invokeValue(double value) {
+		valueSubscribers.accept(value);
+	}
+
+	void invokeOtherwise(double value) {
+		otherwiseSubscribers.accept(value);
+	}
+
+	void consumeValue(DoubleConsumer consumer) {
+		node.getGraph().assertNotCompiled();
+		valueSubscribers.add(consumer);
+	}
+
+	void consumeOtherwise(DoubleConsumer consumer) {
+		node.getGraph().assertNotCompiled();
+		otherwiseSubscribers.add(consumer);
+	}
+
+}
@@ -0,0 +1,31 @@
+package reactor.graph;
+
+import reactor.graph.function.DoubleConsumer;
+
+import java.util.Arrays;
+
+/**
+ * A small, copy-on-write array of downstream {@link reactor.graph.function.DoubleConsumer DoubleConsumers} which are
+ * notified directly of primitive values.
+ * @see Subscribers
+ */
+final class DoubleSubscribers implements DoubleConsumer {
+
+	private static final DoubleConsumer[] EMPTY = new DoubleConsumer[0];
+
+	private volatile DoubleConsumer[] consumers = EMPTY;
+
+	synchronized void add(DoubleConsumer consumer) {
+		DoubleConsumer[] newConsumers = Arrays.copyOf(consumers, consumers.length + 1);
+		newConsumers[consumers.length] = consumer;
+		consumers = newConsumers;
+	}
+
+	@Override
+	public void accept(double value) {
+		for(DoubleConsumer consumer : consumers) {
+			consumer.accept(value);
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package reactor.graph;
+
+import reactor.event.Event;
+
+/**
+ * Hands each error raised by a stage to the {@link Node Nodes} created with {@code when(Class)} for the error's type or
+ * one of its supertypes. The handlers matching each concrete error class are resolved once and cached, so routing an
+ * error costs a single lookup however many error types are handled.
+ */
+final class ErrorRouter {
+
+	private final TypeCases<Node<?>> handlers = new TypeCases<>();
+
+	/**
+	 * Register a handler for the given error type.
+	 *
+	 * @param errorType
+	 * 		the type of error
+	 * @param handler
+	 * 		the {@literal Node} that will receive matching errors
+	 */
+	void add(Class<? extends Throwable> errorType, Node<?> handler) {
+		handlers.add(errorType, handler);
+	}
+
+	/**
+	 * Hand an error to every matching handler, in the order the handlers were registered.
+	 *
+	 * @param ev
+	 * 		the event carrying the error
+	 */
+	@SuppressWarnings("unchecked")
+	void route(Event<Throwable> ev) {
+		Throwable t = ev.getData();
+		if(null == t) {
+			return;
+		}
+		Object[] matching = handlers.matching(t.getClass());
+		if(matching.length == 0) {
+			return;
+		}
+		if(matching.length == 1) {
+			((Node<Throwable>)matching[0]).invokeValue(ev);
+			return;
+		}
+		// every handler must see the original error, so none of them may replace it in place
+		PooledEvent.share(ev);
+		try {
+			for(Object handler : matching) {
+				((Node<Throwable>)handler).invokeValue(ev);
+			}
+		} finally {
+			PooledEvent.unshare(ev);
+		}
+	}
+
+}
@@ -0,0 +1,209 @@
+package reactor.graph;
+
+import reactor.event.Event;
+
+/**
+ * A bounded pool of {@link PooledEvent PooledEvents} which are handed out to carry data through a {@link Graph} and
+ * returned once the task that owns them has finished. When the pool is empty a new event is created, and events
+ * released to a full pool are left to the garbage collector, so the pool never blocks.
+ * <p>
+ * Every thread that acquires or releases events works against its own small cache. Only when that cache runs empty or
+ * overflows does the thread exchange a batch of events with the shared depot, so producers calling {@link
+ * Graph#accept(Object)} from many threads at once, and the {@literal Dispatcher} threads that release the events, do
+ * not contend with each other on every event.
+ * </p>
+ */
+class EventPool {
+
+	static final int THREAD_CACHE_SIZE = 64;
+
+	private final ThreadLocal<ThreadCache> threadCaches = new ThreadLocal<ThreadCache>() {
+		@Override
+		protected ThreadCache initialValue() {
+			return new ThreadCache();
+		}
+	};
+
+	private final PooledEvent<?>[] events;
+	private       int              size;
+
+	EventPool(int capacity) {
+		this.events = new PooledEvent[capacity];
+		for(int i = 0; i < capacity; i++) {
+			events[i] = new PooledEvent<>();
+		}
+		this.size = capacity;
+	}
+
+	/**
+	 * Take an event from the pool and assign it the given data.
+	 *
+	 * @param data
+	 * 		the event's data
+	 * @param <T>
+	 * 		the type of the data
+	 *
+	 * @return an event which must later be passed to {@link #release(reactor.event.Event)}
+	 */
+	<T> Event<T> acquire(T data) {
+		return this.<T>take().setData(data);
+	}
+
+	/**
+	 * Take an event from the pool and store the given value in its primitive slot.
+	 *
+	 * @param value
+	 * 		the value to carry
+	 *
+	 * @return an event which must later be passed to {@link #release(reactor.event.Event)}
+	 */
+	PooledEvent<?> acquireLong(long value) {
+		return take().setLong(value);
+	}
+
+	/**
+	 * Take an event from the pool and store the given value in its primitive slot.
+	 *
+	 * @param value
+	 * 		the value to carry
+	 *
+	 * @return an event which must later be passed to {@link #release(reactor.event.Event)}
+	 */
+	PooledEvent<?> acquireDouble(double value) {
+		return take().setDouble(value);
+	}
+
+	/**
+	 * Get an event to carry a value derived from the given event. If the given event is not being shared with other
+	 * consumers, its data is replaced in place and it is returned as-is. Otherwise a new event is taken from the pool.
+	 *
+	 * @param ev
+	 * 		the event the new value was derived from
+	 * @param data
+	 * 		the derived value
+	 * @param <V>
+	 * 		the type of the derived value
+	 *
+	 * @return an event which must later be passed to {@link #release(reactor.event.Event, reactor.event.Event)}
+	 */
+	@SuppressWarnings("unchecked")
+	<V> Event<V> derive(Event<?> ev, V data) {
+		if(PooledEvent.isExclusive(ev)) {
+			return ((Event<V>)ev).setData(data);
+		}
+		return carryTrace(ev, this.<V>take()).setData(data);
+	}
+
+	/**
+	 * Take an event from the pool to carry the given event's data onto another {@literal Dispatcher}, leaving the given
+	 * event with the task that owns it.
+	 *
+	 * @param ev
+	 * 		the event whose data is handed on
+	 * @param <T>
+	 * 		the type of the data
+	 *
+	 * @return an event which must later be passed to {@link #release(reactor.event.Event)}
+	 */
+	<T> Event<T> fork(Event<T> ev) {
+		return carryTrace(ev, this.<T>take()).setData(ev.getData());
+	}
+
+	/**
+	 * Return an event obtained from {@link #derive(reactor.event.Event, Object)} to the pool, unless it is the event it
+	 * was derived from, which stays owned by the task carrying it.
+	 *
+	 * @param derived
+	 * 		the derived event
+	 * @param source
+	 * 		the event it was derived from
+	 */
+	void release(Event<?> derived, Event<?> source) {
+		if(derived != source) {
+			release(derived);
+		}
+	}
+
+	/**
+	 * Return an event to the pool.
+	 *
+	 * @param ev
+	 * 		the event, which must no longer be referenced by the caller
+	 */
+	void release(Event<?> ev) {
+		if(!(ev instanceof PooledEvent)) {
+			return;
+		}
+		PooledEvent<?> pev = (PooledEvent<?>)ev;
+		Trace trace = pev.getTrace();
+		pev.reset();
+		if(null != trace) {
+			trace.release();
+		}
+		ThreadCache cache = threadCaches.get();
+		if(cache.size == THREAD_CACHE_SIZE) {
+			flush(cache);
+		}
+		cache.events[cache.size++] = pev;
+	}
+
+	/**
+	 * Get the number of events currently available to the calling thread, which are those held by the shared depot plus
+	 * those in the calling thread's own cache. Events cached by other threads are not included.
+	 *
+	 * @return the number of pooled events
+	 */
+	int available() {
+		int cached = threadCaches.get().size;
+		synchronized(this) {
+			return size + cached;
+		}
+	}
+
+	private static <T> PooledEvent<T> carryTrace(Event<?> source, PooledEvent<T> ev) {
+		Trace trace = PooledEvent.traceOf(source);
+		if(null != trace) {
+			trace.retain();
+			ev.setTrace(trace);
+		}
+		return ev;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> PooledEvent<T> take() {
+		ThreadCache cache = threadCaches.get();
+		if(cache.size == 0) {
+			refill(cache);
+		}
+		return (cache.size > 0 ? (PooledEvent<T>)cache.events[--cache.size] : new PooledEvent<T>());
+	}
+
+	private synchronized void refill(ThreadCache cache) {
+		int n = Math.min(size, THREAD_CACHE_SIZE / 2);
+		size -= n;
+		System.arraycopy(events, size, cache.events, 0, n);
+		for(int i = size; i < size + n; i++) {
+			events[i] = null;
+		}
+		cache.size = n;
+	}
+
+	private synchronized void flush(ThreadCache cache) {
+		int n = Math.min(events.length - size, THREAD_CACHE_SIZE / 2);
+		int from = cache.size - n;
+		System.arraycopy(cache.events, from, events, size, n);
+		size += n;
+		// whatever did not fit in the depot is left to the garbage collector
+		int keep = cache.size - THREAD_CACHE_SIZE / 2;
+		for(int i = Math.min(from, keep); i < cache.size; i++) {
+			cache.events[i] = null;
+		}
+		cache.size = Math.min(from, keep);
+	}
+
+	private static final class ThreadCache {
+		final PooledEvent<?>[] events = new PooledEvent[THREAD_CACHE_SIZE];
+		int size;
+	}
+
+}
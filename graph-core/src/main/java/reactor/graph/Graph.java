@@ -2,17 +2,24 @@ package reactor.graph;
 
 import reactor.core.Environment;
 import reactor.core.Reactor;
-import reactor.core.alloc.factory.BatchFactorySupplier;
 import reactor.core.spec.Reactors;
 import reactor.event.Event;
 import reactor.event.dispatch.Dispatcher;
+import reactor.event.dispatch.ThreadPoolExecutorDispatcher;
+import reactor.event.registry.Registration;
 import reactor.function.Consumer;
-import reactor.function.Supplier;
 import reactor.util.Assert;
 import reactor.util.UUIDUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@code Graph} is a directed set of actions based on the
@@ -27,31 +34,38 @@ import java.util.concurrent.ConcurrentHashMap;
  * {@literal Nodes} can be loosely-linked by creating them ahead of time and using the {@link Route#routeTo(String)}
  * method to send an event to a specific, named {@literal Node}.
  * </p>
+ * <p>
+ * Every {@literal Node} and {@literal Route} has an integer id and hands events directly to an array of its downstream
+ * consumers rather than matching them against the selector registry of a {@link reactor.core.Reactor}. All {@literal
+ * Nodes} using the same {@literal Dispatcher} share a single {@literal Reactor}, so creating a {@literal Node} is cheap.
+ * Once wiring is complete, calling {@link #compile()} freezes the topology into an immutable execution plan.
+ * </p>
  *
  * @author Jon Brisbin
  */
 public class Graph<T> implements Consumer<T> {
 
-	private final Map<String, Node<T>> nodes = new ConcurrentHashMap<>();
+	private static final int LANE_BACKLOG = 1024;
+
+	private final Map<String, Node<T>>     nodes      = new ConcurrentHashMap<>();
+	private final ArrayList<Node<?>>       nodeTable  = new ArrayList<>();
+	private final List<Route<?>>           routeTable = new ArrayList<>();
+	private final List<Dispatcher>         lanes      = new ArrayList<>();
+	private final List<Registration<?>>    timers     = new ArrayList<>();
+	private final Map<Dispatcher, Reactor> reactors   = new IdentityHashMap<>();
 
 	private final Environment                 env;
 	private final Dispatcher                  defaultDispatcher;
-	private final BatchFactorySupplier<Event> eventFactory;
+	private final EventPool                   eventPool;
 	private       Node<T>                     startNode;
+	private volatile boolean compiled;
+	private volatile boolean metricsEnabled;
+	private volatile Tracer  tracer;
 
 	private Graph(Environment env, Dispatcher defaultDispatcher) {
 		this.env = env;
 		this.defaultDispatcher = defaultDispatcher;
-		this.eventFactory = new BatchFactorySupplier<>(
-				1024,
-				new Supplier<Event>() {
-					@SuppressWarnings("unchecked")
-					@Override
-					public Event get() {
-						return new Event(null);
-					}
-				}
-		);
+		this.eventPool = new EventPool(1024);
 	}
 
 	/**
@@ -112,6 +126,7 @@ public class Graph<T> implements Consumer<T> {
 	 * @return {@literal this}
 	 */
 	public Graph<T> startNode(String name) {
+		assertNotCompiled();
 		this.startNode = getNode(name);
 		return this;
 	}
@@ -151,25 +166,330 @@ public class Graph<T> implements Consumer<T> {
 	 */
 	public Node<T> node(String name, Dispatcher dispatcher) {
 		Assert.isTrue(!nodes.containsKey(name), "A Node is already created with name '" + name + "'");
-		Dispatcher d = (null != dispatcher ? dispatcher : defaultDispatcher);
-		Reactor reactor = Reactors.reactor(env, d);
-		Node<T> node = new Node<>(name, this, reactor);
+		Node<T> node = createNode(name, getReactor(dispatcher));
 		nodes.put(name, node);
 		return node;
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Create {@code count} new {@literal Nodes} in this {@literal Graph} at once. The {@literal Nodes} have no name until
+	 * one is asked for and are not registered for lookup by name, so they are best reached through {@link
+	 * Route#routeTo(Node)}. This is the cheapest way to create very large numbers of {@literal Nodes}, such as one per
+	 * entity.
+	 *
+	 * @param count
+	 * 		the number of {@literal Nodes} to create
+	 *
+	 * @return the new {@literal Nodes}, in order of their ids
+	 */
+	public List<Node<T>> nodes(int count) {
+		return nodes(count, null);
+	}
+
+	/**
+	 * Create {@code count} new {@literal Nodes} in this {@literal Graph} at once, using the given {@literal Dispatcher}
+	 * when dispatching tasks.
+	 *
+	 * @param count
+	 * 		the number of {@literal Nodes} to create
+	 * @param dispatcher
+	 * 		the {@literal Dispatcher} to use
+	 *
+	 * @return the new {@literal Nodes}, in order of their ids
+	 *
+	 * @see #nodes(int)
+	 */
+	public synchronized List<Node<T>> nodes(int count, Dispatcher dispatcher) {
+		Assert.isTrue(count >= 0, "Node count must not be negative.");
+		Reactor reactor = getReactor(dispatcher);
+		List<Node<T>> created = new ArrayList<>(count);
+		nodeTable.ensureCapacity(nodeTable.size() + count);
+		for(int i = 0; i < count; i++) {
+			created.add(this.<T>createNode(null, reactor));
+		}
+		return created;
+	}
+
+	/**
+	 * Freeze the topology of this {@literal Graph} into an immutable execution plan and resolve its starting {@literal
+	 * Node}. No further {@literal Nodes}, {@literal Routes} or actions can be added once a {@literal Graph} has been
+	 * compiled. Calling this method more than once has no effect.
+	 *
+	 * @return {@literal this}
+	 */
+	public synchronized Graph<T> compile() {
+		if(compiled) {
+			return this;
+		}
+		resolveStartNode();
+		freeze();
+		return this;
+	}
+
+	/**
+	 * Whether this {@literal Graph} has been compiled.
+	 *
+	 * @return {@literal true} if {@link #compile()} has been called, {@literal false} otherwise
+	 */
+	public boolean isCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * Start collecting {@link StageMetrics} for every {@literal Node} and {@literal Route} of this {@literal Graph},
+	 * including those created later. Metrics can be enabled and disabled at any time, also after the {@literal Graph}
+	 * has been compiled. While disabled they cost a single field check per stage.
+	 *
+	 * @return {@literal this}
+	 */
+	public synchronized Graph<T> enableMetrics() {
+		if(metricsEnabled) {
+			return this;
+		}
+		for(Node<?> node : nodeTable) {
+			node.setMetrics(new StageMetrics(node));
+		}
+		for(Route<?> route : routeTable) {
+			route.setMetrics(new StageMetrics(route));
+		}
+		metricsEnabled = true;
+		return this;
+	}
+
+	/**
+	 * Stop collecting {@link StageMetrics} and discard those collected so far.
+	 *
+	 * @return {@literal this}
+	 */
+	public synchronized Graph<T> disableMetrics() {
+		metricsEnabled = false;
+		for(Node<?> node : nodeTable) {
+			node.setMetrics(null);
+		}
+		for(Route<?> route : routeTable) {
+			route.setMetrics(null);
+		}
+		return this;
+	}
+
+	/**
+	 * Whether metrics are being collected for this {@literal Graph}.
+	 *
+	 * @return {@literal true} if {@link #enableMetrics()} has been called, {@literal false} otherwise
+	 */
+	public boolean isMetricsEnabled() {
+		return metricsEnabled;
+	}
+
+	/**
+	 * Get the metrics of this {@literal Graph's} {@literal Nodes} and {@literal Routes}: the number of values each has
+	 * processed, the errors it raised, the values waiting on its {@literal Dispatcher} and a histogram of its processing
+	 * time.
+	 *
+	 * @return the metrics, which are empty unless {@link #enableMetrics()} has been called
+	 */
+	public synchronized GraphMetrics metrics() {
+		List<StageMetrics> nodeMetrics = new ArrayList<>();
+		List<StageMetrics> routeMetrics = new ArrayList<>();
+		for(Node<?> node : nodeTable) {
+			if(null != node.getMetrics()) {
+				nodeMetrics.add(node.getMetrics());
+			}
+		}
+		for(Route<?> route : routeTable) {
+			if(null != route.getMetrics()) {
+				routeMetrics.add(route.getMetrics());
+			}
+		}
+		return new GraphMetrics(nodeMetrics, routeMetrics);
+	}
+
+	/**
+	 * Trace one in every {@code sampleRate} values accepted into this {@literal Graph}, on average, recording the time it
+	 * reaches each {@literal Node} and {@literal Route}. The most recent {@code capacity} completed {@link Trace Traces}
+	 * are kept and can be retrieved with {@link #traces()}. Values that are not sampled cost one field check per stage.
+	 * Batches accepted through {@link #acceptAll(java.util.Collection)} are not traced. Twice {@code capacity} trace
+	 * records are allocated here and reused, so a value is not traced if it is sampled while {@code capacity} others
+	 * are still in flight.
+	 *
+	 * @param sampleRate
+	 * 		the average number of values accepted per traced value
+	 * @param capacity
+	 * 		the number of completed {@literal Traces} to keep
+	 *
+	 * @return {@literal this}
+	 */
+	public Graph<T> enableTracing(int sampleRate, int capacity) {
+		Assert.isTrue(sampleRate > 0, "Sample rate must be greater than 0.");
+		Assert.isTrue(capacity > 0, "Trace capacity must be greater than 0.");
+		this.tracer = new Tracer(sampleRate, capacity);
+		return this;
+	}
+
+	/**
+	 * Stop tracing values and discard the completed {@link Trace Traces}.
+	 *
+	 * @return {@literal this}
+	 */
+	public Graph<T> disableTracing() {
+		this.tracer = null;
+		return this;
+	}
+
+	/**
+	 * Get the most recently completed {@link Trace Traces}, oldest first.
+	 *
+	 * @return the completed {@literal Traces}, which are empty unless {@link #enableTracing(int, int)} has been called
+	 */
+	public List<Trace> traces() {
+		Tracer tracer = this.tracer;
+		return (null != tracer ? tracer.traces() : Collections.<Trace>emptyList());
+	}
+
+	/**
+	 * Shut down the {@literal Dispatchers} this {@literal Graph} created itself, such as the lanes of {@link
+	 * Node#partitionBy(reactor.function.Function, int) partitioned Nodes}, and cancel the periodic tasks of its
+	 * {@literal Nodes}. {@literal Dispatchers} passed in by the caller or obtained from the {@link
+	 * reactor.core.Environment} are left running.
+	 */
+	public synchronized void shutdown() {
+		for(Registration<?> timer : timers) {
+			timer.cancel();
+		}
+		timers.clear();
+		for(Dispatcher lane : lanes) {
+			lane.shutdown();
+		}
+		lanes.clear();
+	}
+
+	/**
+	 * Accept a value into this {@literal Graph}. If the starting {@literal Node} has a bounded {@link
+	 * Node#capacity(int) capacity} and is full, this method blocks until it can take the value.
+	 *
+	 * @param t
+	 * 		the value to accept
+	 */
 	@Override
 	public void accept(T t) {
-		if(null == startNode && nodes.size() == 1) {
-			startNode = nodes.values().iterator().next();
+		if(!compiled) {
+			resolveStartNode();
 		}
-		Assert.notNull(startNode, "No initial starting Node specified. Call Graph.startNode(String) to set one.");
-		startNode.notifyValue(eventFactory.get().setData(t));
+		startNode.notifyValue(acquire(t));
 	}
 
-	BatchFactorySupplier<Event> getEventFactory() {
-		return eventFactory;
+	/**
+	 * Accept a value into this {@literal Graph} only if the starting {@literal Node} has spare {@link
+	 * Node#capacity(int) capacity}, allowing producers to shed load rather than wait.
+	 *
+	 * @param t
+	 * 		the value to accept
+	 *
+	 * @return {@literal true} if the value was accepted, {@literal false} if the starting {@literal Node} is full
+	 */
+	public boolean tryAccept(T t) {
+		try {
+			return accept(t, 0, TimeUnit.MILLISECONDS);
+		} catch(InterruptedException e) {
+			// tryAcquire without a timeout never waits
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Accept a value into this {@literal Graph}, waiting up to the given timeout for the starting {@literal Node} to
+	 * have spare {@link Node#capacity(int) capacity}.
+	 *
+	 * @param t
+	 * 		the value to accept
+	 * @param timeout
+	 * 		the maximum time to wait
+	 * @param timeUnit
+	 * 		the unit of {@code timeout}
+	 *
+	 * @return {@literal true} if the value was accepted, {@literal false} if the starting {@literal Node} was still
+	 * full when the timeout expired
+	 *
+	 * @throws InterruptedException
+	 * 		if the calling thread is interrupted while waiting
+	 */
+	public boolean accept(T t, long timeout, TimeUnit timeUnit) throws InterruptedException {
+		if(!compiled) {
+			resolveStartNode();
+		}
+		Event<T> ev = acquire(t);
+		if(!startNode.tryNotifyValue(ev, timeout, timeUnit)) {
+			eventPool.release(ev);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Accept a batch of values into this {@literal Graph}. The values are handed to the starting {@literal Node} in a
+	 * single dispatch and processed in order, which is considerably cheaper than calling {@link #accept(Object)} once per
+	 * value.
+	 *
+	 * @param values
+	 * 		the values to accept
+	 */
+	public void acceptAll(Collection<? extends T> values) {
+		if(values.isEmpty()) {
+			return;
+		}
+		if(!compiled) {
+			resolveStartNode();
+		}
+		startNode.notifyValues(values.toArray());
+	}
+
+	/**
+	 * Accept a batch of values into this {@literal Graph}. The values are handed to the starting {@literal Node} in a
+	 * single dispatch and processed in order, which is considerably cheaper than calling {@link #accept(Object)} once per
+	 * value.
+	 *
+	 * @param values
+	 * 		the array containing the values to accept
+	 * @param offset
+	 * 		the index of the first value to accept
+	 * @param length
+	 * 		the number of values to accept
+	 */
+	public void acceptAll(T[] values, int offset, int length) {
+		Assert.isTrue(offset >= 0 && length >= 0 && offset + length <= values.length,
+		              "Range [" + offset + ", " + (offset + length) + ") is out of bounds for an array of length " +
+				              values.length);
+		if(length == 0) {
+			return;
+		}
+		if(!compiled) {
+			resolveStartNode();
+		}
+		startNode.notifyValues(Arrays.copyOfRange(values, offset, offset + length, Object[].class));
+	}
+
+	Environment getEnvironment() {
+		return env;
+	}
+
+	EventPool getEventPool() {
+		return eventPool;
+	}
+
+	/**
+	 * Run a task periodically on the {@link reactor.core.Environment Environment's} timer until this {@literal Graph}
+	 * is {@link #shutdown() shut down}.
+	 *
+	 * @param task
+	 * 		the task, which is passed the current time and runs on the timer's thread
+	 * @param period
+	 * 		the time between runs
+	 * @param timeUnit
+	 * 		the unit of {@code period}
+	 */
+	synchronized void schedule(Consumer<Long> task, long period, TimeUnit timeUnit) {
+		timers.add(env.getRootTimer().schedule(task, period, timeUnit));
 	}
 
 	Node<T> getNode(String name) {
@@ -177,11 +497,112 @@ public class Graph<T> implements Consumer<T> {
 		return nodes.get(name);
 	}
 
+	<V> Node<V> createNode(String name, Reactor reactor) {
+		return createNode(name, reactor, null);
+	}
+
+	synchronized <V> Node<V> createNode(String name, Reactor reactor, Lanes lanes) {
+		assertNotCompiled();
+		Node<V> node = new Node<>(nodeTable.size(), name, this, reactor, lanes);
+		nodeTable.add(node);
+		if(metricsEnabled) {
+			node.setMetrics(new StageMetrics(node));
+		}
+		return node;
+	}
+
+	synchronized LongNode createLongNode(String name, Reactor reactor) {
+		assertNotCompiled();
+		return new LongNode((null != name ? name : UUIDUtils.create().toString()), this, reactor);
+	}
+
+	synchronized DoubleNode createDoubleNode(String name, Reactor reactor) {
+		assertNotCompiled();
+		return new DoubleNode((null != name ? name : UUIDUtils.create().toString()), this, reactor);
+	}
+
+	synchronized <V> Route<V> createRoute(Node<?> node) {
+		assertNotCompiled();
+		Route<V> route = new Route<>(routeTable.size(), node);
+		routeTable.add(route);
+		if(metricsEnabled) {
+			route.setMetrics(new StageMetrics(route));
+		}
+		return route;
+	}
+
+	/**
+	 * Get the {@link reactor.core.Reactor} through which the {@literal Nodes} using the given {@literal Dispatcher}
+	 * schedule their tasks. {@literal Nodes} only use their {@literal Reactor} to reach its {@literal Dispatcher}, so
+	 * all {@literal Nodes} on the same {@literal Dispatcher} share a single one.
+	 *
+	 * @param dispatcher
+	 * 		the {@literal Dispatcher}, or {@literal null} for the {@literal Graph's} default
+	 *
+	 * @return the {@literal Dispatcher's} {@literal Reactor}
+	 */
+	synchronized Reactor getReactor(Dispatcher dispatcher) {
+		Dispatcher d = (null != dispatcher ? dispatcher : defaultDispatcher);
+		Reactor reactor = reactors.get(d);
+		if(null == reactor) {
+			reactor = Reactors.reactor(env, d);
+			reactors.put(d, reactor);
+		}
+		return reactor;
+	}
+
+	/**
+	 * Create the given number of single-threaded lanes, each with a {@link reactor.core.Reactor} of its own.
+	 *
+	 * @param count
+	 * 		the number of lanes
+	 *
+	 * @return the lanes
+	 */
+	synchronized Lanes createLanes(int count) {
+		assertNotCompiled();
+		Reactor[] reactors = new Reactor[count];
+		for(int i = 0; i < count; i++) {
+			Dispatcher lane = new ThreadPoolExecutorDispatcher(1, LANE_BACKLOG);
+			lanes.add(lane);
+			reactors[i] = getReactor(lane);
+		}
+		return new Lanes(reactors);
+	}
+
+	/**
+	 * Prevent any further modification of this {@literal Graph's} topology.
+	 */
+	synchronized void freeze() {
+		compiled = true;
+	}
+
+	void assertNotCompiled() {
+		Assert.state(!compiled, "Graph has been compiled and can no longer be modified.");
+	}
+
+	private Event<T> acquire(T t) {
+		Event<T> ev = eventPool.acquire(t);
+		Tracer tracer = this.tracer;
+		if(null != tracer) {
+			tracer.sample(ev);
+		}
+		return ev;
+	}
+
+	private void resolveStartNode() {
+		if(null == startNode && nodes.size() == 1) {
+			startNode = nodes.values().iterator().next();
+		}
+		Assert.notNull(startNode, "No initial starting Node specified. Call Graph.startNode(String) to set one.");
+	}
+
 	@Override
 	public String toString() {
 		return "Graph{" +
 				"nodes=" + nodes +
 				", startNode=" + startNode +
+				", compiled=" + compiled +
 				'}';
 	}
 
@@ -0,0 +1,63 @@
+package reactor.graph;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link StageMetrics} of every {@link Node} and {@link Route} of a {@link Graph}, as returned by {@link
+ * Graph#metrics()}. The individual {@literal StageMetrics} are live and keep updating while metrics are enabled.
+ */
+public class GraphMetrics {
+
+	private final List<StageMetrics> nodes;
+	private final List<StageMetrics> routes;
+
+	GraphMetrics(List<StageMetrics> nodes, List<StageMetrics> routes) {
+		this.nodes = Collections.unmodifiableList(nodes);
+		this.routes = Collections.unmodifiableList(routes);
+	}
+
+	/**
+	 * Get the metrics of every {@literal Node}, in order of creation.
+	 *
+	 * @return the {@literal Nodes'} metrics
+	 */
+	public List<StageMetrics> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Get the metrics of every {@literal Route}, in order of creation.
+	 *
+	 * @return the {@literal Routes'} metrics
+	 */
+	public List<StageMetrics> getRoutes() {
+		return routes;
+	}
+
+	/**
+	 * Get the metrics of the named {@literal Node}.
+	 *
+	 * @param name
+	 * 		the name of the {@literal Node}
+	 *
+	 * @return the {@literal Node's} metrics, or {@literal null} if there is no such {@literal Node}
+	 */
+	public StageMetrics getNode(String name) {
+		for(StageMetrics metrics : nodes) {
+			if(metrics.isNode(name)) {
+				return metrics;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "GraphMetrics{" +
+				"nodes=" + nodes +
+				", routes=" + routes +
+				'}';
+	}
+
+}
@@ -0,0 +1,140 @@
+package reactor.graph;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of non-negative {@code long} values with a fixed memory footprint, in the spirit of <a
+ * href="http://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>. Values are counted in log-linear buckets: each
+ * power of two is split into 16 equally sized sub-buckets, so any recorded value is reported with a relative error
+ * below 1/16 (6.25%). Recording a value takes three atomic increments, of its bucket, the count and the total, plus a
+ * compare-and-set loop when it is a new maximum. Threads recording into the same histogram contend on these.
+ */
+public class Histogram {
+
+	static final int SUB_BUCKET_BITS  = 5;
+	static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	static final int SUB_BUCKET_HALF  = SUB_BUCKET_COUNT / 2;
+	static final int BUCKET_COUNT     = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+
+	private final AtomicLongArray counts     = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong      totalCount = new AtomicLong();
+	private final AtomicLong      totalValue = new AtomicLong();
+	private final AtomicLong      max        = new AtomicLong();
+
+	/**
+	 * Record a value.
+	 *
+	 * @param value
+	 * 		the value to record, negative values are counted as {@literal 0}
+	 */
+	public void record(long value) {
+		if(value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(indexOf(value));
+		totalCount.incrementAndGet();
+		totalValue.addAndGet(value);
+		long currentMax;
+		while(value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+			// retry
+		}
+	}
+
+	/**
+	 * Get the number of recorded values.
+	 *
+	 * @return the number of recorded values
+	 */
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+
+	/**
+	 * Get the largest recorded value.
+	 *
+	 * @return the largest recorded value, or {@literal 0} if no value has been recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Get the mean of the recorded values.
+	 *
+	 * @return the mean, or {@literal 0} if no value has been recorded
+	 */
+	public double getMean() {
+		long count = totalCount.get();
+		return (count > 0 ? (double)totalValue.get() / count : 0);
+	}
+
+	/**
+	 * Get the value below which the given percentage of the recorded values fall. The result is the upper bound of the
+	 * bucket containing that value, capped at the largest recorded value.
+	 *
+	 * @param percentile
+	 * 		the percentile, between {@literal 0} and {@literal 100}
+	 *
+	 * @return the value at the given percentile, or {@literal 0} if no value has been recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			count += counts.get(i);
+		}
+		if(count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long)Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts.get(i);
+			if(seen >= rank) {
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Clear all recorded values.
+	 */
+	public void reset() {
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalValue.set(0);
+		max.set(0);
+	}
+
+	static int indexOf(long value) {
+		if(value < SUB_BUCKET_COUNT) {
+			return (int)value;
+		}
+		int bucket = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		return bucket * SUB_BUCKET_HALF + (int)(value >>> bucket);
+	}
+
+	static long upperBoundOf(int index) {
+		if(index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int bucket = index / SUB_BUCKET_HALF - 1;
+		long subBucket = index - bucket * SUB_BUCKET_HALF;
+		return ((subBucket + 1) << bucket) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram{" +
+				"count=" + getTotalCount() +
+				", mean=" + getMean() +
+				", p50=" + getValueAtPercentile(50) +
+				", p99=" + getValueAtPercentile(99) +
+				", max=" + getMax() +
+				'}';
+	}
+
+}
@@ -0,0 +1,165 @@
+package reactor.graph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts occurrences of keys, as maintained by {@link Node#countBy(reactor.function.Function)}.
+ * <p>
+ * Every thread that counts a key does so in a table of its own, an open-addressing hash table of primitive {@code long}
+ * counts, so threads counting the same popular key do not contend with each other and no object is allocated per key
+ * beyond the key itself. Reading a count adds up the tables of all threads. Each table has a lock which is only ever
+ * contended by readers: {@link #snapshot()} holds all of them at once and therefore sees every table at the same point
+ * in time.
+ * </p>
+ *
+ * @param <K>
+ * 		the type of the keys
+ */
+public class KeyCounter<K> {
+
+	private final CopyOnWriteArrayList<Stripe> stripes = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Stripe>          local   = new ThreadLocal<Stripe>() {
+		@Override
+		protected Stripe initialValue() {
+			Stripe stripe = new Stripe();
+			stripes.add(stripe);
+			return stripe;
+		}
+	};
+
+	/**
+	 * Add one to the count of the given key.
+	 *
+	 * @param key
+	 * 		the key, which must not be {@literal null}
+	 */
+	void increment(K key) {
+		Stripe stripe = local.get();
+		stripe.lock.lock();
+		try {
+			stripe.add(key, 1);
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the current count of the given key.
+	 *
+	 * @param key
+	 * 		the key
+	 *
+	 * @return the number of times the key has been counted
+	 */
+	public long get(K key) {
+		if(null == key) {
+			return 0;
+		}
+		long count = 0;
+		for(Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				count += stripe.get(key);
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get the counts of all keys as of a single point in time.
+	 *
+	 * @return a new {@link java.util.Map} of each key to its count
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<K, Long> snapshot() {
+		Stripe[] stripes = this.stripes.toArray(new KeyCounter.Stripe[0]);
+		for(Stripe stripe : stripes) {
+			stripe.lock.lock();
+		}
+		try {
+			Map<K, Long> counts = new HashMap<>();
+			for(Stripe stripe : stripes) {
+				for(int i = 0; i < stripe.keys.length; i++) {
+					Object key = stripe.keys[i];
+					if(null != key) {
+						Long count = counts.get(key);
+						counts.put((K)key, (null != count ? count : 0) + stripe.counts[i]);
+					}
+				}
+			}
+			return counts;
+		} finally {
+			for(Stripe stripe : stripes) {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "KeyCounter" + snapshot();
+	}
+
+	/**
+	 * The counts of a single thread, in an open-addressing table with linear probing.
+	 */
+	private static final class Stripe {
+		final ReentrantLock lock = new ReentrantLock();
+		Object[] keys   = new Object[16];
+		long[]   counts = new long[16];
+		int      size;
+
+		long get(Object key) {
+			int mask = keys.length - 1;
+			for(int i = indexOf(key, mask); ; i = (i + 1) & mask) {
+				Object k = keys[i];
+				if(null == k) {
+					return 0;
+				}
+				if(k.equals(key)) {
+					return counts[i];
+				}
+			}
+		}
+
+		void add(Object key, long delta) {
+			int mask = keys.length - 1;
+			int i = indexOf(key, mask);
+			for(Object k; null != (k = keys[i]); i = (i + 1) & mask) {
+				if(k.equals(key)) {
+					counts[i] += delta;
+					return;
+				}
+			}
+			keys[i] = key;
+			counts[i] = delta;
+			if(++size > keys.length / 2) {
+				resize();
+			}
+		}
+
+		private void resize() {
+			Object[] oldKeys = keys;
+			long[] oldCounts = counts;
+			keys = new Object[oldKeys.length * 2];
+			counts = new long[oldKeys.length * 2];
+			size = 0;
+			for(int i = 0; i < oldKeys.length; i++) {
+				if(null != oldKeys[i]) {
+					add(oldKeys[i], oldCounts[i]);
+				}
+			}
+		}
+
+		private static int indexOf(Object key, int mask) {
+			int h = key.hashCode() * 0x9e3779b9;
+			return (h ^ (h >>> 16)) & mask;
+		}
+	}
+
+}
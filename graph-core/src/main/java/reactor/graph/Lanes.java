@@ -0,0 +1,118 @@
+package reactor.graph;
+
+import reactor.core.Reactor;
+import reactor.function.Consumer;
+import reactor.function.Function;
+
+/**
+ * The single-threaded lanes of a {@link Node#partitionBy(reactor.function.Function, int) partitioned Node}, shared by
+ * the {@literal Nodes} derived from it.
+ * <p>
+ * Each lane records its thread with the first task it runs, so that stages keeping state per lane can tell which lane
+ * they are running on by comparing the current thread against a handful of others, without a {@link ThreadLocal}.
+ * </p>
+ */
+final class Lanes {
+
+	private final Reactor[] reactors;
+	private final Thread[]  threads;
+
+	private volatile Node<?>             root;
+	private volatile Function<Object, ?> key;
+
+	Lanes(Reactor[] reactors) {
+		this.reactors = reactors;
+		this.threads = new Thread[reactors.length];
+		for(int i = 0; i < reactors.length; i++) {
+			// a lane runs its tasks in order on one thread, so this runs before any value reaches the lane
+			reactors[i].schedule(new Consumer<Integer>() {
+				@Override
+				public void accept(Integer lane) {
+					threads[lane] = Thread.currentThread();
+				}
+			}, i);
+		}
+	}
+
+	/**
+	 * Get the number of lanes.
+	 *
+	 * @return the number of lanes
+	 */
+	int size() {
+		return reactors.length;
+	}
+
+	/**
+	 * Get the {@link Reactor} of a lane.
+	 *
+	 * @param lane
+	 * 		the index of the lane
+	 *
+	 * @return the lane's {@literal Reactor}
+	 */
+	Reactor get(int lane) {
+		return reactors[lane];
+	}
+
+	/**
+	 * Get the {@link Reactor} of the lane the given key belongs to.
+	 *
+	 * @param key
+	 * 		the key, which may be {@literal null}
+	 *
+	 * @return the lane's {@literal Reactor}
+	 */
+	Reactor forKey(Object key) {
+		int h = (null != key ? key.hashCode() : 0);
+		h ^= (h >>> 16);
+		return reactors[(h & Integer.MAX_VALUE) % reactors.length];
+	}
+
+	/**
+	 * Set the partitioned {@link Node} and the function extracting the key its values are partitioned by.
+	 *
+	 * @param root
+	 * 		the partitioned {@literal Node}
+	 * @param key
+	 * 		the function extracting the key from a value
+	 */
+	@SuppressWarnings("unchecked")
+	void partition(Node<?> root, Function<?, ?> key) {
+		this.root = root;
+		this.key = (Function<Object, ?>)key;
+	}
+
+	/**
+	 * Get the {@link Reactor} of the lane a value handed to the given {@link Node} from another {@literal Dispatcher}
+	 * belongs to. Values for the partitioned {@literal Node} go to the lane of their key, like the values it partitions
+	 * itself. The {@literal Nodes} derived from it may carry values of another type, so those are hashed as a whole.
+	 *
+	 * @param node
+	 * 		the partitioned {@literal Node} or one derived from it
+	 * @param value
+	 * 		the value
+	 *
+	 * @return the lane's {@literal Reactor}
+	 */
+	Reactor forValue(Node<?> node, Object value) {
+		return forKey(node == root ? key.apply(value) : value);
+	}
+
+	/**
+	 * Get the lane the calling thread belongs to.
+	 *
+	 * @return the index of the lane, or {@literal 0} if the calling thread is not one of the lanes
+	 */
+	int current() {
+		// each lane only ever looks for its own thread, which it recorded itself
+		Thread thread = Thread.currentThread();
+		for(int i = 0; i < threads.length; i++) {
+			if(threads[i] == thread) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+}
@@ -0,0 +1,174 @@
+package reactor.graph;
+
+import reactor.core.Environment;
+import reactor.event.dispatch.Dispatcher;
+import reactor.util.Assert;
+import reactor.util.UUIDUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@literal LongGraph} is a {@link Graph} whose incoming data are primitive {@code long} values. It is made up of
+ * {@link LongNode LongNodes}, which pass values between stages without boxing them, so purely numeric graphs such as
+ * counters, latencies or prices process values without allocating.
+ */
+public class LongGraph {
+
+	private final Map<String, LongNode> nodes = new ConcurrentHashMap<>();
+
+	private final Graph<?> graph;
+	private       LongNode startNode;
+
+	private LongGraph(Graph<?> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Create a {@literal LongGraph} with the given {@link reactor.core.Environment}.
+	 *
+	 * @param env
+	 * 		the {@link reactor.core.Environment} to use
+	 *
+	 * @return the new {@literal LongGraph}
+	 */
+	public static LongGraph create(Environment env) {
+		return new LongGraph(Graph.create(env));
+	}
+
+	/**
+	 * Create a {@literal LongGraph} with the given {@link reactor.core.Environment} and assigning the given {@literal
+	 * Dispatcher} as a default if no other {@literal Dispatcher} is specified at {@literal LongNode} creation.
+	 *
+	 * @param env
+	 * 		the {@link reactor.core.Environment} to use
+	 * @param dispatcher
+	 * 		the name of the {@link reactor.event.dispatch.Dispatcher} to use
+	 *
+	 * @return the new {@literal LongGraph}
+	 */
+	public static LongGraph create(Environment env, String dispatcher) {
+		return new LongGraph(Graph.create(env, dispatcher));
+	}
+
+	/**
+	 * Create a {@literal LongGraph} with the given {@link reactor.core.Environment} and assigning the given {@literal
+	 * Dispatcher} as a default if no other {@literal Dispatcher} is specified at {@literal LongNode} creation.
+	 *
+	 * @param env
+	 * 		the {@link reactor.core.Environment} to use
+	 * @param dispatcher
+	 * 		the {@link reactor.event.dispatch.Dispatcher} to use
+	 *
+	 * @return the new {@literal LongGraph}
+	 */
+	public static LongGraph create(Environment env, Dispatcher dispatcher) {
+		return new LongGraph(Graph.create(env, dispatcher));
+	}
+
+	/**
+	 * Use the named {@literal LongNode} as the initial, starting {@literal LongNode} when new data comes into the
+	 * {@literal LongGraph}.
+	 *
+	 * @param name
+	 * 		the {@literal LongNode} to use as the {@literal LongNode} which receives incoming data
+	 *
+	 * @return {@literal this}
+	 */
+	public LongGraph startNode(String name) {
+		graph.assertNotCompiled();
+		Assert.isTrue(nodes.containsKey(name), "No LongNode named '" + name + "' found.");
+		this.startNode = nodes.get(name);
+		return this;
+	}
+
+	/**
+	 * Create a new {@literal LongNode} in this {@literal LongGraph} with a generated, UUID name.
+	 *
+	 * @return the new {@literal LongNode}
+	 */
+	public LongNode node() {
+		return node(UUIDUtils.create().toString(), null);
+	}
+
+	/**
+	 * Create a new {@literal LongNode} in this {@literal LongGraph} with the given name.
+	 *
+	 * @param name
+	 * 		the name of the new {@literal LongNode}
+	 *
+	 * @return the new {@literal LongNode}
+	 */
+	public LongNode node(String name) {
+		return node(name, null);
+	}
+
+	/**
+	 * Create a new {@literal LongNode} in this {@literal LongGraph} with the given name and using the given {@literal
+	 * Dispatcher} when dispatching tasks.
+	 *
+	 * @param name
+	 * 		the name of the new {@literal LongNode}
+	 * @param dispatcher
+	 * 		the {@literal Dispatcher} to use
+	 *
+	 * @return the new {@literal LongNode}
+	 */
+	public LongNode node(String name, Dispatcher dispatcher) {
+		Assert.isTrue(!nodes.containsKey(name), "A LongNode is already created with name '" + name + "'");
+		LongNode node = graph.createLongNode(name, graph.getReactor(dispatcher));
+		nodes.put(name, node);
+		return node;
+	}
+
+	/**
+	 * Freeze the topology of this {@literal LongGraph}.
+	 *
+	 * @return {@literal this}
+	 *
+	 * @see Graph#compile()
+	 */
+	public synchronized LongGraph compile() {
+		resolveStartNode();
+		graph.freeze();
+		return this;
+	}
+
+	/**
+	 * Whether this {@literal LongGraph} has been compiled.
+	 *
+	 * @return {@literal true} if {@link #compile()} has been called, {@literal false} otherwise
+	 */
+	public boolean isCompiled() {
+		return graph.isCompiled();
+	}
+
+	/**
+	 * Accept a value into this {@literal LongGraph}.
+	 *
+	 * @param value
+	 * 		the value to accept
+	 */
+	public void accept(long value) {
+		if(!graph.isCompiled()) {
+			resolveStartNode();
+		}
+		startNode.notifyValue(value);
+	}
+
+	private void resolveStartNode() {
+		if(null == startNode && nodes.size() == 1) {
+			startNode = nodes.values().iterator().next();
+		}
+		Assert.notNull(startNode, "No initial starting LongNode specified. Call LongGraph.startNode(String) to set one.");
+	}
+
+	@Override
+	public String toString() {
+		return "LongGraph{" +
+				"nodes=" + nodes +
+				", startNode=" + startNode +
+				'}';
+	}
+
+}
@@ -0,0 +1,223 @@
+package reactor.graph;
+
+import reactor.core.Reactor;
+import reactor.event.Event;
+import reactor.event.dispatch.Dispatcher;
+import reactor.function.Consumer;
+import reactor.graph.function.LongConsumer;
+import reactor.graph.function.LongPredicate;
+import reactor.graph.function.LongUnaryOperator;
+
+/**
+ * A {@literal LongNode} is a {@link Node} specialized for primitive {@code long} values. Values are passed between
+ * stages as plain {@code long} arguments and carried across {@literal Dispatchers} in the primitive slot of a pooled
+ * event, so numeric paths such as counters and latencies never box their values.
+ * @see LongGraph
+ * @see Node#mapToLong(reactor.graph.function.ToLongFunction)
+ */
+public class LongNode {
+
+	private final LongSubscribers valueSubscribers = new LongSubscribers();
+	private final ErrorRouter     errorRouter      = new ErrorRouter();
+
+	private final String   name;
+	private final Graph<?> graph;
+	private final Reactor  reactor;
+
+	private final Consumer<Event<?>> dispatchedValue = new Consumer<Event<?>>() {
+		@Override
+		public void accept(Event<?> ev) {
+			try {
+				valueSubscribers.accept(((PooledEvent<?>)ev).getLong());
+			} finally {
+				graph.getEventPool().release(ev);
+			}
+		}
+	};
+
+	LongNode(String name, Graph<?> graph, Reactor reactor) {
+		this.name = name;
+		this.graph = graph;
+		this.reactor = reactor;
+	}
+
+	/**
+	 * Get the name of this {@literal LongNode}.
+	 *
+	 * @return this LongNode's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Create a {@literal Node} that will receive errors of the given type raised while processing values in this
+	 * {@literal LongNode}.
+	 *
+	 * @param errorType
+	 * 		the type of error to handle
+	 * @param <X>
+	 * 		the type of error
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <X extends Throwable> Node<X> when(Class<X> errorType) {
+		graph.assertNotCompiled();
+		Node<X> newNode = graph.createNode(null, reactor);
+		errorRouter.add(errorType, newNode);
+		return newNode;
+	}
+
+	/**
+	 * Create a {@link LongRoute} that will publish values that pass the given {@link
+	 * reactor.graph.function.LongPredicate} test and publish values that fail the test into the route's {@link
+	 * LongRoute#otherwise()} {@literal LongRoute}.
+	 *
+	 * @param predicate
+	 * 		the {@link reactor.graph.function.LongPredicate} test
+	 *
+	 * @return a new {@link LongRoute}
+	 */
+	public LongRoute when(final LongPredicate predicate) {
+		final LongRoute route = new LongRoute(this);
+		consumeValue(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				if(predicate.test(value)) {
+					route.invokeValue(value);
+				} else {
+					route.invokeOtherwise(value);
+				}
+			}
+		});
+		return route;
+	}
+
+	/**
+	 * Transform the values coming into this {@literal LongNode} by applying the given {@link
+	 * reactor.graph.function.LongUnaryOperator}.
+	 *
+	 * @param operator
+	 * 		the transformation
+	 *
+	 * @return a new {@literal LongNode}
+	 */
+	public LongNode then(final LongUnaryOperator operator) {
+		final LongNode newNode = createChild();
+		consumeValue(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				long result;
+				try {
+					result = operator.applyAsLong(value);
+				} catch(Throwable t) {
+					newNode.invokeError(t);
+					return;
+				}
+				newNode.invokeValue(result);
+			}
+		});
+		return newNode;
+	}
+
+	/**
+	 * Consume values coming into this {@literal LongNode}.
+	 *
+	 * @param consumer
+	 * 		the {@link reactor.graph.function.LongConsumer} that will consume values
+	 *
+	 * @return {@literal this}
+	 */
+	public LongNode consume(final LongConsumer consumer) {
+		consumeValue(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				try {
+					consumer.accept(value);
+				} catch(Throwable t) {
+					invokeError(t);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Box the values coming into this {@literal LongNode} so they can be processed by a regular {@link Node}.
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public Node<Long> boxed() {
+		final Node<Long> newNode = graph.createNode(null, reactor);
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				Event<Long> ev = pool.acquire(value);
+				try {
+					newNode.invokeValue(ev);
+				} finally {
+					pool.release(ev);
+				}
+			}
+		});
+		return newNode;
+	}
+
+	Graph<?> getGraph() {
+		return graph;
+	}
+
+	Dispatcher getDispatcher() {
+		return reactor.getDispatcher();
+	}
+
+	/**
+	 * Hand a value to this {@literal LongNode} from outside its {@link reactor.event.dispatch.Dispatcher}, which costs
+	 * one dispatch.
+	 *
+	 * @param value
+	 * 		the value to publish
+	 */
+	void notifyValue(long value) {
+		reactor.schedule(dispatchedValue, graph.getEventPool().acquireLong(value));
+	}
+
+	/**
+	 * Hand a value to this {@literal LongNode} from a stage already running on its {@link
+	 * reactor.event.dispatch.Dispatcher}.
+	 *
+	 * @param value
+	 * 		the value to publish
+	 */
+	void invokeValue(long value) {
+		valueSubscribers.accept(value);
+	}
+
+	void invokeError(Throwable t) {
+		EventPool pool = graph.getEventPool();
+		Event<Throwable> ev = pool.acquire(t);
+		try {
+			errorRouter.route(ev);
+		} finally {
+			pool.release(ev);
+		}
+	}
+
+	void consumeValue(LongConsumer consumer) {
+		graph.assertNotCompiled();
+		valueSubscribers.add(consumer);
+	}
+
+	LongNode createChild() {
+		return graph.createLongNode(null, reactor);
+	}
+
+	@Override
+	public String toString() {
+		return "LongNode{" +
+				"name='" + name + '\'' +
+				'}';
+	}
+
+}
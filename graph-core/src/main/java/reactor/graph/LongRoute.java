@@ -0,0 +1,110 @@
+package reactor.graph;
+
+import reactor.graph.function.LongConsumer;
+import reactor.graph.function.LongUnaryOperator;
+
+/**
+ * A {@literal LongRoute} is a {@link Route} specialized for primitive {@code long} values.
+ */
+public class LongRoute {
+
+	private final LongSubscribers valueSubscribers     = new LongSubscribers();
+	private final LongSubscribers otherwiseSubscribers = new LongSubscribers();
+
+	private final LongNode node;
+
+	LongRoute(LongNode node) {
+		this.node = node;
+	}
+
+	/**
+	 * Consume values passing through this {@literal LongRoute}.
+	 *
+	 * @param consumer
+	 * 		the {@literal LongConsumer} which will consume values
+	 *
+	 * @return {@literal this}
+	 */
+	public LongRoute consume(final LongConsumer consumer) {
+		consumeValue(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				try {
+					consumer.accept(value);
+				} catch(Throwable t) {
+					node.invokeError(t);
+				}
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Transform values coming into this {@literal LongRoute} by applying the given {@link
+	 * reactor.graph.function.LongUnaryOperator}.
+	 *
+	 * @param operator
+	 * 		the transformation
+	 *
+	 * @return the new {@literal LongRoute}
+	 */
+	public LongRoute then(final LongUnaryOperator operator) {
+		final LongRoute newRoute = new LongRoute(node);
+		consumeValue(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				long result;
+				try {
+					result = operator.applyAsLong(value);
+				} catch(Throwable t) {
+					node.invokeError(t);
+					return;
+				}
+				newRoute.invokeValue(result);
+			}
+		});
+		consumeOtherwise(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				newRoute.invokeOtherwise(value);
+			}
+		});
+		return newRoute;
+	}
+
+	/**
+	 * Capture values coming into this {@literal LongRoute} that have failed the {@link
+	 * reactor.graph.function.LongPredicate} test which created this {@literal LongRoute}.
+	 *
+	 * @return the new {@literal LongRoute}
+	 */
+	public LongRoute otherwise() {
+		final LongRoute newRoute = new LongRoute(node);
+		consumeOtherwise(new LongConsumer() {
+			@Override
+			public void accept(long value) {
+				newRoute.invokeValue(value);
+			}
+		});
+		return newRoute;
+	}
+
+	void invokeValue(long value) {
+		valueSubscribers.accept(value);
+	}
+
+	void invokeOtherwise(long value) {
+		otherwiseSubscribers.accept(value);
+	}
+
+	void consumeValue(LongConsumer consumer) {
+		node.getGraph().assertNotCompiled();
+		valueSubscribers.add(consumer);
+	}
+
+	void consumeOtherwise(LongConsumer consumer) {
+		node.getGraph().assertNotCompiled();
+		otherwiseSubscribers.add(consumer);
+	}
+
+}
@@ -0,0 +1,31 @@
+package reactor.graph;
+
+import reactor.graph.function.LongConsumer;
+
+import java.util.Arrays;
+
+/**
+ * A small, copy-on-write array of downstream {@link reactor.graph.function.LongConsumer LongConsumers} which are
+ * notified directly of primitive values.
+ * @see Subscribers
+ */
+final class LongSubscribers implements LongConsumer {
+
+	private static final LongConsumer[] EMPTY = new LongConsumer[0];
+
+	private volatile LongConsumer[] consumers = EMPTY;
+
+	synchronized void add(LongConsumer consumer) {
+		LongConsumer[] newConsumers = Arrays.copyOf(consumers, consumers.length + 1);
+		newConsumers[consumers.length] = consumer;
+		consumers = newConsumers;
+	}
+
+	@Override
+	public void accept(long value) {
+		for(LongConsumer consumer : consumers) {
+			consumer.accept(value);
+		}
+	}
+
+}
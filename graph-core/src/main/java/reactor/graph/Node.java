@@ -1,14 +1,24 @@
 package reactor.graph;
 
-import reactor.core.Observable;
+import reactor.core.Reactor;
 import reactor.event.Event;
-import reactor.event.selector.Selector;
-import reactor.event.selector.Selectors;
+import reactor.event.dispatch.Dispatcher;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.function.Predicate;
+import reactor.graph.function.ToDoubleFunction;
+import reactor.graph.function.ToLongFunction;
+import reactor.tuple.Tuple2;
+import reactor.util.Assert;
 import reactor.util.UUIDUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 /**
  * A {@literal Node} represents an action or a point at which events can be routed to other {@literal Node Nodes} based
  * on different criteria.
@@ -17,43 +27,84 @@ import reactor.util.UUIDUtils;
  */
 public class Node<T> {
 
-	private final Selector onValue = Selectors.anonymous();
-	private final Selector onError = Selectors.anonymous();
+	/**
+	 * The task run on a {@literal Dispatcher} for every value handed to a {@literal Node} from outside it. The event
+	 * refers to its target {@literal Node}, so this one instance serves all of them.
+	 */
+	private static final Consumer<Event<?>> DISPATCHED_VALUE = new Consumer<Event<?>>() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public void accept(Event<?> ev) {
+			((Node)((PooledEvent<?>)ev).getTarget()).dispatchValue(ev);
+		}
+	};
+
+	@SuppressWarnings("unchecked")
+	private volatile Consumer<Event<T>>[]         valueConsumers = Subscribers.EMPTY;
 
-	private final String     name;
-	private final Graph<?>   graph;
-	private final Observable observable;
+	private final int      id;
+	private final Graph<?> graph;
+	private final Reactor  reactor;
+	private final Lanes    lanes;
 
-	Node(Graph<?> graph, Observable observable) {
-		this(UUIDUtils.create().toString(), graph, observable);
-	}
+	private volatile String             name;
+	private volatile Semaphore          credits;
+	private volatile StageMetrics       metrics;
+	private          Consumer<Object[]> dispatchedValues;
+	private volatile ErrorRouter        errorRouter;
 
-	Node(String name, Graph<?> graph, Observable observable) {
+	Node(int id, String name, Graph<?> graph, Reactor reactor, Lanes lanes) {
+		this.id = id;
 		this.name = name;
 		this.graph = graph;
-		this.observable = observable;
+		this.reactor = reactor;
+		this.lanes = lanes;
 	}
 
 	/**
-	 * Get the name of this {@literal Node}.
+	 * Get the id of this {@literal Node}, which is its index in the owning {@literal Graph}.
+	 *
+	 * @return this Node's id
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Get the name of this {@literal Node}. {@literal Nodes} created without a name are given a UUID the first time
+	 * their name is asked for.
 	 *
 	 * @return this Node's name
 	 */
 	public String getName() {
+		String name = this.name;
+		if(null == name) {
+			synchronized(this) {
+				if(null == this.name) {
+					this.name = UUIDUtils.create().toString();
+				}
+				name = this.name;
+			}
+		}
 		return name;
 	}
 
-	public <X extends Throwable> Node<X> when(final Class<X> errorType) {
-		final Node<X> newNode = createChild();
-		consumeError(new Consumer<Event<Throwable>>() {
-			@SuppressWarnings("unchecked")
-			@Override
-			public void accept(Event ev) {
-				if(errorType.isInstance(ev.getData())) {
-					newNode.notifyValue(ev);
-				}
-			}
-		});
+	/**
+	 * Create a {@literal Node} that receives the errors of the given type, or any of its subtypes, raised by the stages
+	 * of this {@literal Node}. An error matching several handled types goes to each of their {@literal Nodes}. The
+	 * handlers matching each concrete error class are resolved once, so routing an error costs a single lookup.
+	 *
+	 * @param errorType
+	 * 		the type of error to handle
+	 * @param <X>
+	 * 		the type of error
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <X extends Throwable> Node<X> when(Class<X> errorType) {
+		graph.assertNotCompiled();
+		Node<X> newNode = createChild();
+		errorRouter().add(errorType, newNode);
 		return newNode;
 	}
 
@@ -72,15 +123,119 @@ public class Node<T> {
 			@Override
 			public void accept(Event<T> ev) {
 				if(predicate.test(ev.getData())) {
-					route.notifyValue(ev);
+					route.invokeValue(ev);
 				} else {
-					route.notifyOtherwise(ev);
+					route.invokeOtherwise(ev);
 				}
 			}
 		});
 		return route;
 	}
 
+	/**
+	 * Create a {@link Switch} that routes each value coming into this {@literal Node} to the {@literal Node} registered
+	 * for the key the given function extracts from it.
+	 *
+	 * @param key
+	 * 		the function extracting the key from a value
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@link reactor.graph.Switch}
+	 */
+	public <K> Switch<T, K> switchOn(final Function<T, K> key) {
+		final Switch<T, K> sw = new Switch<>(this);
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				K k;
+				try {
+					k = key.apply(ev.getData());
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				sw.route(ev, k);
+			}
+		});
+		return sw;
+	}
+
+	/**
+	 * Create a {@link Choice} that routes each value coming into this {@literal Node} to the {@literal Node} of the first
+	 * branch whose {@link reactor.function.Predicate} it passes. Unlike several {@link #when(reactor.function.Predicate)}
+	 * {@literal Routes}, which each test every value, a {@literal Choice} stops at the first branch that passes.
+	 *
+	 * @return a new {@link reactor.graph.Choice}
+	 */
+	public Choice<T> choose() {
+		final Choice<T> choice = new Choice<>(this);
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				choice.route(ev);
+			}
+		});
+		return choice;
+	}
+
+	/**
+	 * Create a {@link TypeSwitch} that routes each value coming into this {@literal Node} to the {@literal Node}
+	 * registered for the value's type.
+	 *
+	 * @return a new {@link reactor.graph.TypeSwitch}
+	 */
+	public TypeSwitch<T> switchOnType() {
+		final TypeSwitch<T> sw = new TypeSwitch<>(this);
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				sw.route(ev);
+			}
+		});
+		return sw;
+	}
+
+	/**
+	 * Create a {@link Route} like {@link #when(reactor.function.Predicate)}, but remembering the result of the test for up
+	 * to {@code maxEntries} distinct values so that it runs once per distinct value. To read the cache's hit and miss
+	 * counts, pass a {@link CachedPredicate} to {@literal when} instead.
+	 *
+	 * @param predicate
+	 * 		the {@link reactor.function.Predicate} test, which must always give the same result for equal values
+	 * @param maxEntries
+	 * 		the maximum number of results to remember
+	 *
+	 * @return a new {@link reactor.graph.Route}
+	 */
+	public Route<T> whenCached(Predicate<T> predicate, int maxEntries) {
+		return when(new CachedPredicate<>(predicate, maxEntries));
+	}
+
+	/**
+	 * Transform the values coming into this {@literal Node} like {@link #then(reactor.function.Function)}, but remembering
+	 * the result for up to {@code maxEntries} distinct values so that the function is applied once per distinct value.
+	 * To read the cache's hit and miss counts, pass a {@link CachedFunction} to {@literal then} instead.
+	 *
+	 * @param fn
+	 * 		the transformation {@link reactor.function.Function}, which must always return the same result for equal values
+	 * @param maxEntries
+	 * 		the maximum number of results to remember
+	 * @param <V>
+	 * 		the type of the returned value
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <V> Node<V> thenCached(Function<T, V> fn, int maxEntries) {
+		return then(new CachedFunction<>(fn, maxEntries));
+	}
+
 	/**
 	 * Transform the values coming into this {@literal Node} by applying the given {@link reactor.function.Function}.
 	 *
@@ -93,15 +248,461 @@ public class Node<T> {
 	 */
 	public <V> Node<V> then(final Function<T, V> fn) {
 		final Node<V> newNode = createChild();
+		final EventPool pool = graph.getEventPool();
 		consumeValue(new Consumer<Event<T>>() {
-			@SuppressWarnings("unchecked")
 			@Override
 			public void accept(Event<T> ev) {
+				V obj;
 				try {
-					V obj = fn.apply(ev.getData());
-					newNode.notifyValue(ev.copy(obj));
+					obj = fn.apply(ev.getData());
 				} catch(Throwable t) {
-					newNode.notifyError(ev.copy(t));
+					Event<Throwable> evx = pool.derive(ev, t);
+					try {
+						newNode.invokeError(evx);
+					} finally {
+						pool.release(evx, ev);
+					}
+					return;
+				}
+				Event<V> evv = pool.derive(ev, obj);
+				try {
+					newNode.invokeValue(evv);
+				} finally {
+					pool.release(evv, ev);
+				}
+			}
+		});
+		return newNode;
+	}
+
+	/**
+	 * Bound the number of values that have been dispatched to this {@literal Node} but not yet processed. Once {@code
+	 * maxPending} values are waiting, producers handing this {@literal Node} another value are held back until one of
+	 * them has been processed: {@link Graph#accept(Object)} and {@link Graph#acceptAll(java.util.Collection)} block and
+	 * {@link Graph#tryAccept(Object)} gives up.
+	 * <p>
+	 * Only the threads of producers calling into the {@literal Graph} are ever blocked. A value forwarded from a stage
+	 * on another {@literal Dispatcher}, by a {@link Route}, {@link Switch}, {@link Choice} or {@link TypeSwitch} or by
+	 * the lanes of {@link #partitionBy(reactor.function.Function, int)}, is refused instead, since blocking there would
+	 * park that {@literal Dispatcher's} thread and could deadlock {@literal Nodes} that feed each other or share a
+	 * thread pool. The refused value is dropped and a {@link java.util.concurrent.RejectedExecutionException} is
+	 * delivered to the error handlers of the {@literal Node} whose stage forwarded it, so overflow can be counted or
+	 * logged with {@link #when(Class)}.
+	 * </p>
+	 * <p>
+	 * Only values crossing onto this {@literal Node's} {@literal Dispatcher} are counted, since stages fused onto the
+	 * same {@literal Dispatcher} run in-line. A batch accepted through {@link Graph#acceptAll(java.util.Collection)}
+	 * counts as a single value.
+	 * </p>
+	 *
+	 * @param maxPending
+	 * 		the maximum number of values waiting to be processed
+	 *
+	 * @return {@literal this}
+	 */
+	public Node<T> capacity(int maxPending) {
+		graph.assertNotCompiled();
+		Assert.isTrue(maxPending > 0, "Capacity must be greater than 0.");
+		Assert.state(null == credits, "Capacity of Node '" + getName() + "' has already been set.");
+		this.credits = new Semaphore(maxPending);
+		return this;
+	}
+
+	/**
+	 * Spread the values coming into this {@literal Node} across {@code parallelism} single-threaded lanes by hashing the
+	 * key extracted from each value. Values with equal keys always go to the same lane and are therefore processed in
+	 * the order they arrived, while values with different keys are processed in parallel. The stages attached to the
+	 * returned {@literal Node} run on the lane of each value, so they must be safe to call from several threads.
+	 * <p>
+	 * Stages attached to the returned {@literal Node}, or to {@literal Nodes} derived from it, run in-line on the lane
+	 * of each value, and so do {@literal Routes} from them to {@literal Nodes} on the synchronous {@literal Dispatcher}.
+	 * A {@literal Route} into the partition from another {@literal Dispatcher} picks the lane in the same way: values
+	 * routed to the returned {@literal Node} by their key, and values routed to a {@literal Node} derived from it by
+	 * their own hash code.
+	 * </p>
+	 * <p>
+	 * {@link #batch(int, long, java.util.concurrent.TimeUnit) Batches}, {@link #window(long, long,
+	 * java.util.concurrent.TimeUnit, Aggregator) windows} and periodic sketches computed downstream keep their state
+	 * per lane, and their timers hand each lane a task of its own, so one lane is never held up by the others. They publish one
+	 * result per lane, which can be merged if a total is needed.
+	 * </p>
+	 * <p>
+	 * The lanes' {@literal Dispatchers} are owned by the {@literal Graph} and stopped by {@link Graph#shutdown()}.
+	 * </p>
+	 *
+	 * @param key
+	 * 		the function extracting the partitioning key from a value
+	 * @param parallelism
+	 * 		the number of lanes
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <K> Node<T> partitionBy(final Function<T, K> key, int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0.");
+		final Lanes lanes = graph.createLanes(parallelism);
+		final Node<T> newNode = graph.createNode(null, lanes.get(0), lanes);
+		lanes.partition(newNode, key);
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				K k;
+				try {
+					k = key.apply(ev.getData());
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				Event<T> forked = pool.fork(ev);
+				if(!newNode.offerValue(forked, lanes.forKey(k))) {
+					pool.release(forked);
+					refused(newNode);
+				}
+			}
+		});
+		return newNode;
+	}
+
+	/**
+	 * Extract a primitive {@code long} from the values coming into this {@literal Node} and hand it to a {@link
+	 * LongNode}, whose stages process it without boxing.
+	 * <p>
+	 * As with {@link #then(reactor.function.Function)}, errors raised by the function are delivered to the returned
+	 * {@literal LongNode}, so they are handled by calling {@code when(Class)} on it rather than on a later stage.
+	 * </p>
+	 *
+	 * @param fn
+	 * 		the function extracting the {@code long}
+	 *
+	 * @return a new {@literal LongNode}
+	 */
+	public LongNode mapToLong(final ToLongFunction<? super T> fn) {
+		final LongNode newNode = graph.createLongNode(null, reactor);
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				long value;
+				try {
+					value = fn.applyAsLong(ev.getData());
+				} catch(Throwable t) {
+					newNode.invokeError(t);
+					return;
+				}
+				newNode.invokeValue(value);
+			}
+		});
+		return newNode;
+	}
+
+	/**
+	 * Extract a primitive {@code double} from the values coming into this {@literal Node} and hand it to a {@link
+	 * DoubleNode}, whose stages process it without boxing.
+	 * <p>
+	 * As with {@link #then(reactor.function.Function)}, errors raised by the function are delivered to the returned
+	 * {@literal DoubleNode}, so they are handled by calling {@code when(Class)} on it rather than on a later stage.
+	 * </p>
+	 *
+	 * @param fn
+	 * 		the function extracting the {@code double}
+	 *
+	 * @return a new {@literal DoubleNode}
+	 */
+	public DoubleNode mapToDouble(final ToDoubleFunction<? super T> fn) {
+		final DoubleNode newNode = graph.createDoubleNode(null, reactor);
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				double value;
+				try {
+					value = fn.applyAsDouble(ev.getData());
+				} catch(Throwable t) {
+					newNode.invokeError(t);
+					return;
+				}
+				newNode.invokeValue(value);
+			}
+		});
+		return newNode;
+	}
+
+	/**
+	 * Count the values coming into this {@literal Node} by the key the given function extracts from them. Values whose
+	 * key is {@literal null} are not counted.
+	 *
+	 * @param key
+	 * 		the function extracting the key from a value
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return the {@link KeyCounter} holding the counts
+	 */
+	public <K> KeyCounter<K> countBy(final Function<T, K> key) {
+		final KeyCounter<K> counter = new KeyCounter<>();
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				K k;
+				try {
+					k = key.apply(ev.getData());
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				if(null != k) {
+					counter.increment(k);
+				}
+			}
+		});
+		return counter;
+	}
+
+	/**
+	 * Estimate the number of distinct keys the given function extracts from the values coming into this {@literal
+	 * Node}, in a fixed amount of memory however many there are. Values whose key is {@literal null} are not counted.
+	 *
+	 * @param key
+	 * 		the function extracting the key from a value
+	 * @param precision
+	 * 		the precision of the {@link HyperLogLog} sketches, each of which takes {@code 2^precision} bytes
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return the {@link DistinctCounter} holding the estimate
+	 */
+	public <K> DistinctCounter<K> countDistinct(Function<T, K> key, int precision) {
+		DistinctCounter<K> counter = new DistinctCounter<>(precision);
+		countDistinct(key, Collections.singletonList(counter));
+		return counter;
+	}
+
+	/**
+	 * Count distinct keys like {@link #countDistinct(reactor.function.Function, int)}, and publish a {@link HyperLogLog}
+	 * sketch of the keys counted during each period to the returned {@literal Node}, such as the distinct users per
+	 * minute. Periods in which no keys were counted are skipped. Sketches of consecutive periods can be {@link
+	 * HyperLogLog#merge(HyperLogLog) merged} to count the distinct keys over a longer time.
+	 * <p>
+	 * On a {@link #partitionBy(reactor.function.Function, int) partitioned Node}, each lane counts its own keys and
+	 * publishes its own sketch on its own thread, so a period yields up to one sketch per lane, to be merged for the
+	 * total.
+	 * </p>
+	 *
+	 * @param key
+	 * 		the function extracting the key from a value
+	 * @param precision
+	 * 		the precision of the {@link HyperLogLog} sketches, each of which takes {@code 2^precision} bytes
+	 * @param period
+	 * 		the time between published sketches
+	 * @param timeUnit
+	 * 		the unit of {@code period}
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <K> Node<HyperLogLog> countDistinct(Function<T, K> key, int precision, long period, TimeUnit timeUnit) {
+		Assert.isTrue(period > 0, "Period must be greater than 0.");
+		final List<DistinctCounter<K>> counters = new ArrayList<>(laneCount());
+		for(int i = 0; i < laneCount(); i++) {
+			counters.add(new DistinctCounter<K>(precision));
+		}
+		countDistinct(key, counters);
+		final Node<HyperLogLog> newNode = createChild();
+		final EventPool pool = graph.getEventPool();
+		schedulePerLane(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer lane) {
+				HyperLogLog sketch = counters.get(lane).snapshotAndReset();
+				if(sketch.isEmpty()) {
+					return;
+				}
+				Event<HyperLogLog> ev = pool.acquire(sketch);
+				try {
+					newNode.invokeValue(ev);
+				} finally {
+					pool.release(ev);
+				}
+			}
+		}, period, timeUnit);
+		return newNode;
+	}
+
+	private <K> void countDistinct(final Function<T, K> key, final List<DistinctCounter<K>> counters) {
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				K k;
+				try {
+					k = key.apply(ev.getData());
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				if(null != k) {
+					counters.get(currentLane()).add(k);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Record the value the given function extracts from each value coming into this {@literal Node}, such as a payload
+	 * size or a latency, in a {@link QuantileSketch} from which quantiles can be read at any time. The sketch takes a
+	 * fixed amount of memory and recording a value does not allocate.
+	 *
+	 * @param fn
+	 * 		the function extracting the value to record
+	 * @param accuracy
+	 * 		the relative accuracy of the reported quantiles, such as 0.01 for 1%
+	 *
+	 * @return the {@link QuantileRecorder} holding the recorded values
+	 */
+	public QuantileRecorder quantiles(ToDoubleFunction<? super T> fn, double accuracy) {
+		QuantileRecorder recorder = new QuantileRecorder(accuracy);
+		quantiles(fn, Collections.singletonList(recorder));
+		return recorder;
+	}
+
+	/**
+	 * Record values like {@link #quantiles(reactor.graph.function.ToDoubleFunction, double)}, and publish a {@link
+	 * QuantileSketch} of the values recorded during each period to the returned {@literal Node}. Periods in which no
+	 * values were recorded are skipped. Sketches of consecutive periods can be {@link
+	 * QuantileSketch#merge(QuantileSketch) merged} to get the quantiles over a longer time.
+	 * <p>
+	 * On a {@link #partitionBy(reactor.function.Function, int) partitioned Node}, each lane records its own values and
+	 * publishes its own sketch on its own thread, so a period yields up to one sketch per lane, to be merged for the
+	 * total.
+	 * </p>
+	 *
+	 * @param fn
+	 * 		the function extracting the value to record
+	 * @param accuracy
+	 * 		the relative accuracy of the reported quantiles, such as 0.01 for 1%
+	 * @param period
+	 * 		the time between published sketches
+	 * @param timeUnit
+	 * 		the unit of {@code period}
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public Node<QuantileSketch> quantiles(ToDoubleFunction<? super T> fn, double accuracy, long period, TimeUnit timeUnit) {
+		Assert.isTrue(period > 0, "Period must be greater than 0.");
+		final List<QuantileRecorder> recorders = new ArrayList<>(laneCount());
+		for(int i = 0; i < laneCount(); i++) {
+			recorders.add(new QuantileRecorder(accuracy));
+		}
+		quantiles(fn, recorders);
+		final Node<QuantileSketch> newNode = createChild();
+		final EventPool pool = graph.getEventPool();
+		schedulePerLane(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer lane) {
+				QuantileSketch sketch = recorders.get(lane).snapshotAndReset();
+				if(sketch.getCount() == 0) {
+					return;
+				}
+				Event<QuantileSketch> ev = pool.acquire(sketch);
+				try {
+					newNode.invokeValue(ev);
+				} finally {
+					pool.release(ev);
+				}
+			}
+		}, period, timeUnit);
+		return newNode;
+	}
+
+	private void quantiles(final ToDoubleFunction<? super T> fn, final List<QuantileRecorder> recorders) {
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				double value;
+				try {
+					value = fn.applyAsDouble(ev.getData());
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				recorders.get(currentLane()).add(value);
+			}
+		});
+	}
+
+	/**
+	 * Keep a leaderboard of the {@code k} most frequent keys the given function extracts from the values coming into
+	 * this {@literal Node}. The leaderboard, the keys with their estimated counts in descending order, is published to
+	 * the returned {@literal Node} whenever a key enters it or changes places, rather than for every value, so the counts
+	 * it carries are those at the time of the change. Values whose key is {@literal null} are not counted.
+	 * <p>
+	 * Counting takes a fixed amount of memory, one counter for each of up to {@code 64 * k} (but at least 1024) distinct
+	 * keys, however many distinct keys there are. Once the counters are all in use, a new key takes over the counter of
+	 * the least frequent one and carries on from its count, so counts can be too high by up to the number of values
+	 * divided by the number of counters. If this {@literal Node's} {@literal Dispatcher} runs on more than one thread,
+	 * leaderboards computed at nearly the same time may be published out of order.
+	 * </p>
+	 *
+	 * @param key
+	 * 		the function extracting the key from a value
+	 * @param k
+	 * 		the number of places on the leaderboard
+	 * @param <K>
+	 * 		the type of the key
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <K> Node<List<Tuple2<K, Long>>> topK(final Function<T, K> key, int k) {
+		Assert.isTrue(k > 0, "Leaderboard size must be greater than 0.");
+		final TopK<K> topK = new TopK<>(k);
+		final Node<List<Tuple2<K, Long>>> newNode = createChild();
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				K candidate;
+				try {
+					candidate = key.apply(ev.getData());
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				List<Tuple2<K, Long>> leaderboard;
+				if(null == candidate || null == (leaderboard = topK.add(candidate))) {
+					return;
+				}
+				Event<List<Tuple2<K, Long>>> evl = pool.derive(ev, leaderboard);
+				try {
+					newNode.invokeValue(evl);
+				} finally {
+					pool.release(evl, ev);
 				}
 			}
 		});
@@ -117,53 +718,521 @@ public class Node<T> {
 	 * @return {@literal this}
 	 */
 	public Node<T> consume(final Consumer<T> consumer) {
+		final EventPool pool = graph.getEventPool();
 		consumeValue(new Consumer<Event<T>>() {
-			@SuppressWarnings("unchecked")
 			@Override
 			public void accept(Event<T> ev) {
 				try {
 					consumer.accept(ev.getData());
 				} catch(Throwable t) {
-					Event<Throwable> evx = graph.getEventFactory().get().setData(t);
-					notifyError(evx);
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
 				}
 			}
 		});
 		return this;
 	}
 
+	/**
+	 * Collect the values coming into this {@literal Node} into batches, which are published to the returned {@literal
+	 * Node} when they reach {@code maxSize} values or when the oldest value in the batch has waited for {@code
+	 * maxDelay}, whichever happens first. Delays are measured by the {@link reactor.core.Environment Environment's}
+	 * timer, in whole milliseconds, so a delay shorter than a millisecond is rounded up to one.
+	 * <p>
+	 * The published {@literal Lists} are reused for later batches once they have been processed, so they must be copied
+	 * if they need to be kept or handed to a {@literal Node} using another {@literal Dispatcher}.
+	 * </p>
+	 * <p>
+	 * On a {@link #partitionBy(reactor.function.Function, int) partitioned Node}, each lane fills its own batches, which
+	 * only ever hold values of that lane's keys and are published on that lane.
+	 * </p>
+	 *
+	 * @param maxSize
+	 * 		the maximum number of values in a batch
+	 * @param maxDelay
+	 * 		the maximum time a value waits before its batch is published, or {@literal 0} to only publish full batches
+	 * @param timeUnit
+	 * 		the unit of {@code maxDelay}
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public Node<List<T>> batch(int maxSize, long maxDelay, TimeUnit timeUnit) {
+		Assert.isTrue(maxSize > 0, "Batch size must be greater than 0.");
+		Assert.isTrue(maxDelay >= 0, "Batch delay must not be negative.");
+		long delayMillis = timeUnit.toMillis(maxDelay);
+		if(maxDelay > 0 && delayMillis == 0) {
+			// 0 would disable the timer and leave a partial batch waiting for more values
+			delayMillis = 1;
+		}
+		final Node<List<T>> newNode = createChild();
+		if(null == lanes) {
+			consumeValue(new BatchingConsumer<>(maxSize,
+			                                    delayMillis,
+			                                    newNode,
+			                                    reactor,
+			                                    graph.getEnvironment().getRootTimer()));
+			return newNode;
+		}
+		// each lane fills its own batches, whose timeouts are handed back to that lane
+		final List<BatchingConsumer<T>> batchers = new ArrayList<>(lanes.size());
+		for(int i = 0; i < lanes.size(); i++) {
+			batchers.add(new BatchingConsumer<>(maxSize,
+			                                    delayMillis,
+			                                    newNode,
+			                                    lanes.get(i),
+			                                    graph.getEnvironment().getRootTimer()));
+		}
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				batchers.get(lanes.current()).accept(ev);
+			}
+		});
+		return newNode;
+	}
+
+	/**
+	 * Aggregate the values coming into this {@literal Node} over a sliding window of time, publishing the aggregate of
+	 * the last {@code size} to the returned {@literal Node} every {@code slide}. A window whose slide equals its size is
+	 * a tumbling window. Windows that hold no values are not published.
+	 * <p>
+	 * The window is split into panes as long as the greatest common divisor of {@code size} and {@code slide}, and is
+	 * advanced by the {@link reactor.core.Environment Environment's} timer at the end of each pane. Values are only
+	 * folded into the aggregate of their pane, and publishing a window merges the aggregates of its panes, so the size
+	 * of a window does not affect the cost of a value. A window has at most 65536 panes, which rules out sizes that are
+	 * very long compared to the pane length, such as a day sliding by the millisecond. The panes start when this method
+	 * is called and are not aligned to the clock, so a one minute window created at 12:00:17 covers 12:00:17 to
+	 * 12:01:17, and so on. They run until the {@literal Graph} is {@link Graph#shutdown() shut down}.
+	 * </p>
+	 * <p>
+	 * On a {@link #partitionBy(reactor.function.Function, int) partitioned Node}, each lane aggregates its own values
+	 * over its own window, which it advances and publishes on its own thread, so every slide yields up to one aggregate
+	 * per lane.
+	 * </p>
+	 *
+	 * @param size
+	 * 		the length of the window
+	 * @param slide
+	 * 		the time between published windows
+	 * @param timeUnit
+	 * 		the unit of {@code size} and {@code slide}
+	 * @param aggregator
+	 * 		the {@link Aggregator} folding the values, such as one of the {@link Aggregators}
+	 * @param <A>
+	 * 		the type of the aggregate
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <A> Node<A> window(long size, long slide, TimeUnit timeUnit, Aggregator<? super T, A> aggregator) {
+		long sizeMillis = timeUnit.toMillis(size);
+		long slideMillis = timeUnit.toMillis(slide);
+		Assert.isTrue(sizeMillis > 0, "Window size must be at least 1ms.");
+		Assert.isTrue(slideMillis > 0, "Window slide must be at least 1ms.");
+		long pane = SlidingWindow.paneLength(sizeMillis, slideMillis);
+		int panes = SlidingWindow.panes(sizeMillis, pane);
+		int panesPerSlide = SlidingWindow.panes(slideMillis, pane);
+		final List<SlidingWindow<T, A>> windows = new ArrayList<>(laneCount());
+		for(int i = 0; i < laneCount(); i++) {
+			windows.add(SlidingWindow.create(aggregator, panes, panesPerSlide, 0));
+		}
+		final Node<A> newNode = window(windows);
+		final EventPool pool = graph.getEventPool();
+		schedulePerLane(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer lane) {
+				A aggregate;
+				try {
+					aggregate = windows.get(lane).advance();
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				if(null != aggregate) {
+					Event<A> ev = pool.acquire(aggregate);
+					try {
+						newNode.invokeValue(ev);
+					} finally {
+						pool.release(ev);
+					}
+				}
+			}
+		}, pane, TimeUnit.MILLISECONDS);
+		return newNode;
+	}
+
+	/**
+	 * Aggregate the values coming into this {@literal Node} over a sliding window of values, publishing the aggregate of
+	 * the last {@code size} values to the returned {@literal Node} every {@code slide} values, once the first {@code
+	 * size} values have come in. A window whose slide equals its size is a tumbling window. As with {@link #window(long,
+	 * long, java.util.concurrent.TimeUnit, Aggregator) time windows}, values are folded into panes as long as the
+	 * greatest common divisor of {@code size} and {@code slide}, so the size of a window does not affect the cost of a
+	 * value, and there can be at most 65536 of them. On a {@link #partitionBy(reactor.function.Function, int)
+	 * partitioned Node}, each lane counts and aggregates its own values over its own window.
+	 *
+	 * @param size
+	 * 		the number of values in the window
+	 * @param slide
+	 * 		the number of values between published windows
+	 * @param aggregator
+	 * 		the {@link Aggregator} folding the values, such as one of the {@link Aggregators}
+	 * @param <A>
+	 * 		the type of the aggregate
+	 *
+	 * @return a new {@literal Node}
+	 */
+	public <A> Node<A> window(int size, int slide, Aggregator<? super T, A> aggregator) {
+		Assert.isTrue(size > 0, "Window size must be greater than 0.");
+		Assert.isTrue(slide > 0, "Window slide must be greater than 0.");
+		long pane = SlidingWindow.paneLength(size, slide);
+		int panes = SlidingWindow.panes(size, pane);
+		int panesPerSlide = SlidingWindow.panes(slide, pane);
+		List<SlidingWindow<T, A>> windows = new ArrayList<>(laneCount());
+		for(int i = 0; i < laneCount(); i++) {
+			windows.add(SlidingWindow.create(aggregator, panes, panesPerSlide, pane));
+		}
+		return window(windows);
+	}
+
+	private <A> Node<A> window(final List<SlidingWindow<T, A>> windows) {
+		final Node<A> newNode = createChild();
+		final EventPool pool = graph.getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
+			@Override
+			public void accept(Event<T> ev) {
+				A aggregate;
+				try {
+					aggregate = windows.get(currentLane()).add(ev.getData());
+				} catch(Throwable t) {
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				if(null != aggregate) {
+					Event<A> eva = pool.derive(ev, aggregate);
+					try {
+						newNode.invokeValue(eva);
+					} finally {
+						pool.release(eva, ev);
+					}
+				}
+			}
+		});
+		return newNode;
+	}
+
 	Graph<?> getGraph() {
 		return graph;
 	}
 
+	boolean hasName(String name) {
+		// reads the field rather than getName(), so anonymous Nodes are not given a name
+		return null != name && name.equals(this.name);
+	}
+
+	Dispatcher getDispatcher() {
+		return reactor.getDispatcher();
+	}
+
+	StageMetrics getMetrics() {
+		return metrics;
+	}
+
+	void setMetrics(StageMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Hand a value to this {@literal Node} from a producer calling into the {@literal Graph}, which costs one dispatch
+	 * and waits for capacity if the {@literal Node} is bounded. The {@literal Node} takes ownership of the event and
+	 * returns it to the {@link EventPool} once all of its consumers have run.
+	 *
+	 * @param ev
+	 * 		the event to publish, obtained from the {@literal Graph's} {@link EventPool}
+	 */
 	void notifyValue(Event<T> ev) {
-		observable.notify(onValue.getObject(), ev);
+		Semaphore credits = this.credits;
+		if(null != credits) {
+			credits.acquireUninterruptibly();
+		}
+		schedule(reactor, ev);
+	}
+
+	/**
+	 * Hand a value to this {@literal Node} if it has spare capacity, waiting up to the given timeout for capacity to
+	 * become available.
+	 *
+	 * @param ev
+	 * 		the event to publish, obtained from the {@literal Graph's} {@link EventPool}
+	 * @param timeout
+	 * 		the maximum time to wait, or {@literal 0} to not wait at all
+	 * @param timeUnit
+	 * 		the unit of {@code timeout}
+	 *
+	 * @return {@literal true} if the {@literal Node} took ownership of the event, {@literal false} if it is full
+	 *
+	 * @throws InterruptedException
+	 * 		if the calling thread is interrupted while waiting
+	 */
+	boolean tryNotifyValue(Event<T> ev, long timeout, TimeUnit timeUnit) throws InterruptedException {
+		Semaphore credits = this.credits;
+		if(null != credits && !(timeout > 0 ? credits.tryAcquire(timeout, timeUnit) : credits.tryAcquire())) {
+			return false;
+		}
+		schedule(reactor, ev);
+		return true;
+	}
+
+	/**
+	 * Hand a value to this {@literal Node} from a stage running on another {@link reactor.event.dispatch.Dispatcher}
+	 * if it has spare capacity. This never waits, since it would hold up the thread of that other {@literal
+	 * Dispatcher}. If this {@literal Node} is partitioned, the value is handed to the lane it hashes to.
+	 *
+	 * @param ev
+	 * 		the event to publish, obtained from the {@literal Graph's} {@link EventPool}
+	 *
+	 * @return {@literal true} if the {@literal Node} took ownership of the event, {@literal false} if it is full and the
+	 * event stays with the caller
+	 */
+	boolean offerValue(Event<T> ev) {
+		return offerValue(ev, (null != lanes ? lanes.forValue(this, ev.getData()) : reactor));
+	}
+
+	/**
+	 * Hand a value to this {@literal Node} on the given lane rather than on this {@literal Node's} own {@link
+	 * reactor.core.Reactor}, if it has spare capacity.
+	 *
+	 * @param ev
+	 * 		the event to publish, obtained from the {@literal Graph's} {@link EventPool}
+	 * @param lane
+	 * 		the {@link reactor.core.Reactor} whose {@literal Dispatcher} should run the consumers
+	 *
+	 * @return {@literal true} if the {@literal Node} took ownership of the event, {@literal false} if it is full and the
+	 * event stays with the caller
+	 */
+	boolean offerValue(Event<T> ev, Reactor lane) {
+		Semaphore credits = this.credits;
+		if(null != credits && !credits.tryAcquire()) {
+			return false;
+		}
+		schedule(lane, ev);
+		return true;
+	}
+
+	/**
+	 * Report a value forwarded by a stage of this {@literal Node} that the given {@literal Node} refused because it was
+	 * full, as an error of this {@literal Node}.
+	 *
+	 * @param target
+	 * 		the full {@literal Node}
+	 */
+	void refused(Node<?> target) {
+		EventPool pool = graph.getEventPool();
+		Throwable t = new RejectedExecutionException("Node '" + target.getName() + "' is full.");
+		Event<Throwable> evx = pool.acquire(t);
+		try {
+			invokeError(evx);
+		} finally {
+			pool.release(evx);
+		}
+	}
+
+	/**
+	 * Hand a batch of values to this {@literal Node} from outside its {@link reactor.event.dispatch.Dispatcher}. The
+	 * whole batch costs one dispatch and its values are processed in order by a single task.
+	 *
+	 * @param values
+	 * 		the values to publish, which must not be modified afterwards
+	 */
+	void notifyValues(Object[] values) {
+		Semaphore credits = this.credits;
+		if(null != credits) {
+			credits.acquireUninterruptibly();
+		}
+		incrementPending();
+		reactor.schedule(dispatchedValues(), values);
 	}
 
-	void notifyError(Event<Throwable> ev) {
-		observable.notify(onError.getObject(), ev);
+	/**
+	 * Run this {@literal Node's} consumers as the task dispatched for the given event, then return the event to the
+	 * {@link EventPool}.
+	 *
+	 * @param ev
+	 * 		the event handed to {@link #notifyValue(reactor.event.Event)}
+	 */
+	void dispatchValue(Event<T> ev) {
+		StageMetrics metrics = this.metrics;
+		if(null != metrics) {
+			metrics.decrementPending();
+		}
+		try {
+			invokeValue(ev);
+		} finally {
+			graph.getEventPool().release(ev);
+			releaseCredit();
+		}
 	}
 
-	void consumeValue(Consumer<Event<T>> consumer) {
-		observable.on(onValue, consumer);
+	/**
+	 * Hand a value to this {@literal Node} from a stage already running on its {@link
+	 * reactor.event.dispatch.Dispatcher}. The consumers are called in-line so that a chain of stages sharing a {@literal
+	 * Dispatcher} runs as a single task.
+	 *
+	 * @param ev
+	 * 		the event to publish
+	 */
+	void invokeValue(Event<T> ev) {
+		Trace trace = PooledEvent.traceOf(ev);
+		if(null != trace) {
+			trace.stamp(this);
+		}
+		StageMetrics metrics = this.metrics;
+		if(null == metrics) {
+			Subscribers.accept(valueConsumers, ev);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			Subscribers.accept(valueConsumers, ev);
+		} finally {
+			metrics.recordValue(System.nanoTime() - start);
+		}
 	}
 
-	void consumeError(Consumer<Event<Throwable>> consumer) {
-		observable.on(onError, consumer);
+	void invokeError(Event<Throwable> ev) {
+		StageMetrics metrics = this.metrics;
+		if(null != metrics) {
+			metrics.recordError();
+		}
+		ErrorRouter errorRouter = this.errorRouter;
+		if(null != errorRouter) {
+			errorRouter.route(ev);
+		}
+	}
+
+	synchronized void consumeValue(Consumer<Event<T>> consumer) {
+		graph.assertNotCompiled();
+		valueConsumers = Subscribers.append(valueConsumers, consumer);
+	}
+
+	private synchronized ErrorRouter errorRouter() {
+		// most Nodes handle no errors, so the router is only created for those that do
+		if(null == errorRouter) {
+			errorRouter = new ErrorRouter();
+		}
+		return errorRouter;
+	}
+
+	private void schedule(Reactor reactor, Event<T> ev) {
+		incrementPending();
+		((PooledEvent<?>)ev).setTarget(this);
+		reactor.schedule(DISPATCHED_VALUE, ev);
+	}
+
+	private Consumer<Object[]> dispatchedValues() {
+		// only Nodes fed through Graph.acceptAll need one, so it is created on first use
+		Consumer<Object[]> dispatchedValues = this.dispatchedValues;
+		if(null == dispatchedValues) {
+			this.dispatchedValues = dispatchedValues = new Consumer<Object[]>() {
+				@SuppressWarnings("unchecked")
+				@Override
+				public void accept(Object[] values) {
+					StageMetrics metrics = Node.this.metrics;
+					if(null != metrics) {
+						metrics.decrementPending();
+					}
+					EventPool pool = graph.getEventPool();
+					// one event carries every value of the batch in turn
+					Event<T> ev = pool.acquire(null);
+					try {
+						for(Object value : values) {
+							invokeValue(ev.setData((T)value));
+						}
+					} finally {
+						pool.release(ev);
+						releaseCredit();
+					}
+				}
+			};
+		}
+		return dispatchedValues;
+	}
+
+	private void incrementPending() {
+		StageMetrics metrics = this.metrics;
+		if(null != metrics) {
+			metrics.incrementPending();
+		}
+	}
+
+	private void releaseCredit() {
+		Semaphore credits = this.credits;
+		if(null != credits) {
+			credits.release();
+		}
+	}
+
+	private int laneCount() {
+		return (null != lanes ? lanes.size() : 1);
+	}
+
+	private int currentLane() {
+		return (null != lanes ? lanes.current() : 0);
+	}
+
+	/**
+	 * Run a task periodically on every lane of this {@literal Node}, or on its own {@link
+	 * reactor.event.dispatch.Dispatcher} if it is not partitioned, with the index of the lane.
+	 *
+	 * @param task
+	 * 		the task to run, with the index of the lane it is running on
+	 * @param period
+	 * 		the time between runs
+	 * @param timeUnit
+	 * 		the unit of {@code period}
+	 */
+	private void schedulePerLane(final Consumer<Integer> task, long period, TimeUnit timeUnit) {
+		graph.schedule(new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				// the timer runs on its own thread, so hand the task over to the Dispatchers
+				if(null == lanes) {
+					reactor.schedule(task, 0);
+					return;
+				}
+				for(int i = 0; i < lanes.size(); i++) {
+					lanes.get(i).schedule(task, i);
+				}
+			}
+		}, period, timeUnit);
 	}
 
 	<V> Node<V> createChild() {
-		return new Node<>(graph, observable);
+		// Nodes derived from a partitioned Node share its lanes
+		return graph.createNode(null, reactor, lanes);
 	}
 
 	<V> Route<V> createRoute() {
-		return new Route<>(this, observable);
+		return graph.createRoute(this);
 	}
 
 	@Override
 	public String toString() {
 		return "Node{" +
-				"name='" + name + '\'' +
+				"id=" + id +
+				", name='" + getName() + '\'' +
 				'}';
 	}
 
@@ -0,0 +1,132 @@
+package reactor.graph;
+
+import reactor.event.Event;
+
+/**
+ * An {@link reactor.event.Event} that is owned by an {@link EventPool} and returned to it once the task that carried
+ * it through the {@link Graph} has finished.
+ * <p>
+ * Besides its data, a {@literal PooledEvent} has a primitive slot which carries {@code long} and {@code double}
+ * values between {@link LongNode LongNodes} and {@link DoubleNode DoubleNodes} without boxing them.
+ * </p>
+ * <p>
+ * A {@literal PooledEvent} also tracks whether it is currently being handed to more than one consumer. While it is
+ * shared, a stage must not replace its data in place because sibling consumers have yet to see the original value.
+ * </p>
+ * <p>
+ * Events carrying a sampled value hold a reference to its {@link Trace}, which is carried over to every event derived
+ * from them.
+ * </p>
+ * <p>
+ * While an event waits on a {@literal Dispatcher}, it also refers to the {@link Node} it has been handed to, so that a
+ * single task {@literal Consumer} can serve every {@literal Node}.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of the event's data
+ */
+class PooledEvent<T> extends Event<T> {
+
+	private static final long serialVersionUID = -2393580311813950424L;
+
+	private transient int     shares;
+	private transient long    primitive;
+	private transient Trace   trace;
+	private transient Node<?> target;
+
+	PooledEvent() {
+		super(null);
+	}
+
+	/**
+	 * Mark the given event as being handed to more than one consumer.
+	 *
+	 * @param ev
+	 * 		the event being fanned out
+	 */
+	static void share(Event<?> ev) {
+		if(ev instanceof PooledEvent) {
+			((PooledEvent<?>)ev).shares++;
+		}
+	}
+
+	/**
+	 * Undo a previous call to {@link #share(reactor.event.Event)}.
+	 *
+	 * @param ev
+	 * 		the event that has been handed to all consumers
+	 */
+	static void unshare(Event<?> ev) {
+		if(ev instanceof PooledEvent) {
+			((PooledEvent<?>)ev).shares--;
+		}
+	}
+
+	/**
+	 * Whether the given event is seen by exactly one consumer at this point of the graph, so that its data can be
+	 * replaced in place.
+	 *
+	 * @param ev
+	 * 		the event to check
+	 *
+	 * @return {@literal true} if the event can be reused by the current stage
+	 */
+	static boolean isExclusive(Event<?> ev) {
+		return ev instanceof PooledEvent && ((PooledEvent<?>)ev).shares == 0;
+	}
+
+	/**
+	 * Get the {@link Trace} of the value carried by the given event.
+	 *
+	 * @param ev
+	 * 		the event
+	 *
+	 * @return the {@literal Trace}, or {@literal null} if the value is not being traced
+	 */
+	static Trace traceOf(Event<?> ev) {
+		return (ev instanceof PooledEvent ? ((PooledEvent<?>)ev).trace : null);
+	}
+
+	Trace getTrace() {
+		return trace;
+	}
+
+	void setTrace(Trace trace) {
+		this.trace = trace;
+	}
+
+	Node<?> getTarget() {
+		return target;
+	}
+
+	void setTarget(Node<?> target) {
+		this.target = target;
+	}
+
+	long getLong() {
+		return primitive;
+	}
+
+	PooledEvent<T> setLong(long value) {
+		this.primitive = value;
+		return this;
+	}
+
+	double getDouble() {
+		return Double.longBitsToDouble(primitive);
+	}
+
+	PooledEvent<T> setDouble(double value) {
+		this.primitive = Double.doubleToRawLongBits(value);
+		return this;
+	}
+
+	void reset() {
+		setData(null);
+		shares = 0;
+		primitive = 0;
+		trace = null;
+		target = null;
+	}
+
+}
@@ -2,6 +2,8 @@ package reactor.graph;
 
 import reactor.function.Predicate;
 
+import java.util.Collection;
+
 /**
  * @author Jon Brisbin
  */
@@ -23,13 +25,58 @@ public abstract class Predicates {
 	}
 
 	public static <T> Predicate<T> isAssignableFrom(final Class<? extends T> type) {
+		// the answer only depends on the object's class, so it is worked out once per class
+		final ClassValue<Boolean> assignable = new ClassValue<Boolean>() {
+			@Override
+			protected Boolean computeValue(Class<?> c) {
+				return type.isAssignableFrom(c);
+			}
+		};
 		return new Predicate<T>() {
 			@Override
 			public boolean test(T obj) {
 				if(null == obj) {
 					return false;
 				}
-				return type.isAssignableFrom(obj.getClass());
+				return assignable.get(obj.getClass());
+			}
+		};
+	}
+
+	/**
+	 * Create a {@link reactor.function.Predicate} that passes strings containing any of the given terms. The terms are
+	 * compiled into a {@link TermMatcher}, so each test is a single pass over the string however many terms there are.
+	 *
+	 * @param terms
+	 * 		the terms to look for
+	 *
+	 * @return the new {@literal Predicate}
+	 */
+	public static Predicate<String> containsAny(Collection<String> terms) {
+		final TermMatcher matcher = TermMatcher.of(terms);
+		return new Predicate<String>() {
+			@Override
+			public boolean test(String s) {
+				return null != s && matcher.containsAny(s);
+			}
+		};
+	}
+
+	/**
+	 * Create a {@link reactor.function.Predicate} that passes strings starting with any of the given terms. The terms
+	 * are compiled into a {@link TermMatcher}, so each test walks the string's prefix once however many terms there are.
+	 *
+	 * @param terms
+	 * 		the terms to look for
+	 *
+	 * @return the new {@literal Predicate}
+	 */
+	public static Predicate<String> startsWithAny(Collection<String> terms) {
+		final TermMatcher matcher = TermMatcher.of(terms);
+		return new Predicate<String>() {
+			@Override
+			public boolean test(String s) {
+				return null != s && matcher.startsWithAny(s);
 			}
 		};
 	}
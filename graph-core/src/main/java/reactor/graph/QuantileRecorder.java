@@ -0,0 +1,109 @@
+package reactor.graph;
+
+import reactor.util.Assert;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records values into {@link QuantileSketch quantile sketches}, as maintained by {@link
+ * Node#quantiles(reactor.graph.function.ToDoubleFunction, double)}.
+ * <p>
+ * Every thread that records a value adds it to a sketch of its own, so {@literal Dispatcher} threads never contend with
+ * each other. Reading the quantiles merges the sketches of all threads into a new one, which can be done while values
+ * are still being recorded. Each sketch has a lock which is only ever contended by readers.
+ * </p>
+ */
+public class QuantileRecorder {
+
+	private final CopyOnWriteArrayList<Stripe> stripes = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Stripe>          local   = new ThreadLocal<Stripe>() {
+		@Override
+		protected Stripe initialValue() {
+			Stripe stripe = new Stripe(new QuantileSketch(accuracy));
+			stripes.add(stripe);
+			return stripe;
+		}
+	};
+	private final double accuracy;
+
+	QuantileRecorder(double accuracy) {
+		Assert.isTrue(accuracy > 0 && accuracy < 1, "Accuracy must be greater than 0 and less than 1.");
+		this.accuracy = accuracy;
+	}
+
+	/**
+	 * Record the given value.
+	 *
+	 * @param value
+	 * 		the value
+	 */
+	void add(double value) {
+		Stripe stripe = local.get();
+		stripe.lock.lock();
+		try {
+			stripe.sketch.add(value);
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the relative accuracy of the sketches.
+	 *
+	 * @return the relative accuracy of the sketches
+	 */
+	public double getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Get a sketch of the values recorded so far, for example to read its quantiles or to {@link
+	 * QuantileSketch#merge(QuantileSketch) merge} it with the sketches of other partitions.
+	 *
+	 * @return a new {@link QuantileSketch} holding the values of all threads
+	 */
+	public QuantileSketch snapshot() {
+		return drain(false);
+	}
+
+	/**
+	 * Get a sketch of the values recorded so far and start over.
+	 *
+	 * @return a new {@link QuantileSketch} holding the values of all threads
+	 */
+	QuantileSketch snapshotAndReset() {
+		return drain(true);
+	}
+
+	@Override
+	public String toString() {
+		return "QuantileRecorder" + snapshot();
+	}
+
+	private QuantileSketch drain(boolean reset) {
+		QuantileSketch merged = new QuantileSketch(accuracy);
+		for(Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				merged.merge(stripe.sketch);
+				if(reset) {
+					stripe.sketch.clear();
+				}
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		return merged;
+	}
+
+	private static final class Stripe {
+		final ReentrantLock  lock = new ReentrantLock();
+		final QuantileSketch sketch;
+
+		Stripe(QuantileSketch sketch) {
+			this.sketch = sketch;
+		}
+	}
+
+}
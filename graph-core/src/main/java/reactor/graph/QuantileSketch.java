@@ -0,0 +1,281 @@
+package reactor.graph;
+
+import reactor.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * Estimates the quantiles of a stream of non-negative {@code double} values with a fixed relative accuracy, in the
+ * spirit of <a href="https://arxiv.org/abs/1908.10693">DDSketch</a>.
+ * <p>
+ * Values are counted in logarithmic buckets, each {@code (1 + accuracy) / (1 - accuracy)} times as wide as the one
+ * before, so the value reported for any quantile is within {@code accuracy} of a value that was actually added at that
+ * rank: with an accuracy of 0.01, a reported p99 of 200ms means between 198ms and 202ms. The buckets are a fixed array
+ * of {@link #MAX_BUCKETS} counts, which spans more than 15 orders of magnitude at that accuracy. If the values span
+ * more than that, the lowest buckets are folded together, which only affects the accuracy of the lowest quantiles.
+ * Adding a value does not allocate. Sketches of the same accuracy can be {@link #merge(QuantileSketch) merged}, which
+ * gives the sketch of all the values added to either, so sketches of partitioned lanes or of consecutive intervals can
+ * be combined.
+ * </p>
+ * <p>
+ * A {@literal QuantileSketch} is not thread-safe. {@link Node#quantiles(reactor.graph.function.ToDoubleFunction,
+ * double)} keeps one per thread and merges them when it is read.
+ * </p>
+ */
+public final class QuantileSketch {
+
+	/**
+	 * The number of buckets of a sketch.
+	 */
+	public static final int MAX_BUCKETS = 2048;
+
+	private final long[] buckets = new long[MAX_BUCKETS];
+	private final double accuracy;
+	private final double gamma;
+	private final double logGamma;
+
+	private int    offset;
+	private int    minIndex;
+	private int    maxIndex;
+	private long   bucketCount;
+	private long   zeroCount;
+	private double sum;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Create an empty sketch.
+	 *
+	 * @param accuracy
+	 * 		the relative accuracy of the reported quantiles, greater than 0 and less than 1
+	 */
+	public QuantileSketch(double accuracy) {
+		Assert.isTrue(accuracy > 0 && accuracy < 1, "Accuracy must be greater than 0 and less than 1.");
+		this.accuracy = accuracy;
+		this.gamma = (1 + accuracy) / (1 - accuracy);
+		this.logGamma = Math.log(gamma);
+	}
+
+	/**
+	 * Get the relative accuracy of this sketch.
+	 *
+	 * @return the relative accuracy of the reported quantiles
+	 */
+	public double getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Add a value to this sketch.
+	 *
+	 * @param value
+	 * 		the value, negative values are counted as {@literal 0} and {@literal NaN} is ignored
+	 */
+	public void add(double value) {
+		if(Double.isNaN(value)) {
+			return;
+		}
+		if(value < 0) {
+			value = 0;
+		}
+		sum += value;
+		if(value < min) {
+			min = value;
+		}
+		if(value > max) {
+			max = value;
+		}
+		if(value < Double.MIN_NORMAL) {
+			zeroCount++;
+		} else {
+			addToBucket((int)Math.ceil(Math.log(value) / logGamma), 1);
+		}
+	}
+
+	/**
+	 * Add all values added to the given sketch to this one.
+	 *
+	 * @param other
+	 * 		a sketch of the same accuracy
+	 *
+	 * @return {@literal this}
+	 */
+	public QuantileSketch merge(QuantileSketch other) {
+		Assert.isTrue(other.accuracy == accuracy, "Cannot merge sketches of different accuracies.");
+		if(other.getCount() == 0) {
+			return this;
+		}
+		if(other.bucketCount > 0) {
+			for(int i = other.minIndex; i <= other.maxIndex; i++) {
+				long count = other.buckets[i - other.offset];
+				if(count > 0) {
+					addToBucket(i, count);
+				}
+			}
+		}
+		zeroCount += other.zeroCount;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		return this;
+	}
+
+	/**
+	 * Get the number of values added to this sketch.
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return bucketCount + zeroCount;
+	}
+
+	/**
+	 * Get the smallest value added to this sketch.
+	 *
+	 * @return the smallest value, or {@literal NaN} if the sketch is empty
+	 */
+	public double getMin() {
+		return (getCount() > 0 ? min : Double.NaN);
+	}
+
+	/**
+	 * Get the largest value added to this sketch.
+	 *
+	 * @return the largest value, or {@literal NaN} if the sketch is empty
+	 */
+	public double getMax() {
+		return (getCount() > 0 ? max : Double.NaN);
+	}
+
+	/**
+	 * Get the mean of the values added to this sketch.
+	 *
+	 * @return the mean, or {@literal NaN} if the sketch is empty
+	 */
+	public double getMean() {
+		return (getCount() > 0 ? sum / getCount() : Double.NaN);
+	}
+
+	/**
+	 * Estimate the value at the given quantile.
+	 *
+	 * @param quantile
+	 * 		the quantile, between 0 and 1, such as 0.99 for the 99th percentile
+	 *
+	 * @return the estimated value, or {@literal NaN} if the sketch is empty
+	 */
+	public double getValueAtQuantile(double quantile) {
+		Assert.isTrue(quantile >= 0 && quantile <= 1, "Quantile must be between 0 and 1.");
+		long count = getCount();
+		if(count == 0) {
+			return Double.NaN;
+		}
+		long rank = (long)(quantile * (count - 1));
+		if(rank < zeroCount) {
+			return min;
+		}
+		long seen = zeroCount;
+		for(int i = minIndex; i <= maxIndex; i++) {
+			seen += buckets[i - offset];
+			if(seen > rank) {
+				// the value half-way between the bucket's bounds in relative terms
+				double value = 2 * Math.pow(gamma, i) / (gamma + 1);
+				return Math.max(min, Math.min(max, value));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Create a copy of this sketch.
+	 *
+	 * @return a new {@literal QuantileSketch} holding the same values
+	 */
+	public QuantileSketch copy() {
+		return new QuantileSketch(accuracy).merge(this);
+	}
+
+	/**
+	 * Remove all values from this sketch.
+	 */
+	public void clear() {
+		Arrays.fill(buckets, 0);
+		bucketCount = 0;
+		zeroCount = 0;
+		sum = 0;
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+	}
+
+	@Override
+	public String toString() {
+		return "QuantileSketch{" +
+				"count=" + getCount() +
+				", min=" + getMin() +
+				", p50=" + getValueAtQuantile(0.5) +
+				", p99=" + getValueAtQuantile(0.99) +
+				", max=" + getMax() +
+				'}';
+	}
+
+	private void addToBucket(int index, long count) {
+		if(bucketCount == 0) {
+			// start out with the value in the middle of the buckets
+			offset = index - MAX_BUCKETS / 2;
+			minIndex = maxIndex = index;
+		} else if(index < offset || index >= offset + MAX_BUCKETS) {
+			index = slide(index);
+		}
+		buckets[index - offset] += count;
+		bucketCount += count;
+		if(index < minIndex) {
+			minIndex = index;
+		}
+		if(index > maxIndex) {
+			maxIndex = index;
+		}
+	}
+
+	/**
+	 * Move the buckets in use so that the given index is covered, folding the lowest buckets together if they no longer
+	 * fit. Only happens when a value falls outside the values added so far, so it is rare after the first few.
+	 *
+	 * @return the index to add the value to
+	 */
+	private int slide(int index) {
+		int lo = Math.min(index, minIndex);
+		int hi = Math.max(index, maxIndex);
+		if(hi - lo < MAX_BUCKETS) {
+			// everything fits: center the buckets in use
+			moveTo(lo - (MAX_BUCKETS - (hi - lo + 1)) / 2);
+			return index;
+		}
+		int newOffset = hi - MAX_BUCKETS + 1;
+		if(index < minIndex) {
+			// the new value is the lowest one, so it goes into the lowest bucket
+			moveTo(newOffset);
+			return newOffset;
+		}
+		// the buckets move down, and those that fall off the bottom are added to the lowest one
+		for(int i = minIndex; i <= maxIndex; i++) {
+			long count = buckets[i - offset];
+			buckets[i - offset] = 0;
+			buckets[Math.max(i, newOffset) - newOffset] += count;
+		}
+		minIndex = Math.max(minIndex, newOffset);
+		maxIndex = Math.max(maxIndex, newOffset);
+		offset = newOffset;
+		return index;
+	}
+
+	private void moveTo(int newOffset) {
+		int from = minIndex - offset;
+		int to = minIndex - newOffset;
+		int length = maxIndex - minIndex + 1;
+		System.arraycopy(buckets, from, buckets, to, length);
+		Arrays.fill(buckets, 0, to, 0);
+		Arrays.fill(buckets, to + length, MAX_BUCKETS, 0);
+		offset = newOffset;
+	}
+
+}
@@ -1,9 +1,6 @@
 package reactor.graph;
 
-import reactor.core.Observable;
 import reactor.event.Event;
-import reactor.event.selector.Selector;
-import reactor.event.selector.Selectors;
 import reactor.function.Consumer;
 import reactor.function.Function;
 
@@ -14,15 +11,19 @@ import reactor.function.Function;
  */
 public class Route<T> {
 
-	private final Selector onValue     = Selectors.anonymous();
-	private final Selector onOtherwise = Selectors.anonymous();
+	@SuppressWarnings("unchecked")
+	private volatile Consumer<Event<T>>[] valueConsumers     = Subscribers.EMPTY;
+	@SuppressWarnings("unchecked")
+	private volatile Consumer<Event<T>>[] otherwiseConsumers = Subscribers.EMPTY;
 
-	private final Node<?>    node;
-	private final Observable observable;
+	private final int     id;
+	private final Node<?> node;
 
-	Route(Node<?> node, Observable observable) {
+	private volatile StageMetrics metrics;
+
+	Route(int id, Node<?> node) {
+		this.id = id;
 		this.node = node;
-		this.observable = observable;
 	}
 
 	/**
@@ -36,12 +37,25 @@ public class Route<T> {
 	 */
 	@SuppressWarnings("unchecked")
 	public Route<T> routeTo(String nodeName) {
-		final Node<T> newNode = (Node<T>)node.getGraph().getNode(nodeName);
-		observable.on(onValue, new Consumer<Event>() {
-			@SuppressWarnings("unchecked")
+		return routeTo((Node<T>)node.getGraph().getNode(nodeName));
+	}
+
+	/**
+	 * Route value events coming into this {@literal Route} to the given {@literal Node}, which must belong to the same
+	 * {@literal Graph}. This also reaches {@literal Nodes} that have no name, such as those created by {@link
+	 * Graph#nodes(int)}.
+	 *
+	 * @param newNode
+	 * 		the {@literal Node} to forward events to
+	 *
+	 * @return {@literal this}
+	 */
+	public Route<T> routeTo(Node<T> newNode) {
+		final Target<T> target = Target.of(node, newNode);
+		consumeValue(new Consumer<Event<T>>() {
 			@Override
-			public void accept(Event ev) {
-				newNode.notifyValue(ev);
+			public void accept(Event<T> ev) {
+				target.accept(ev);
 			}
 		});
 		return this;
@@ -56,13 +70,19 @@ public class Route<T> {
 	 * @return {@literal this}
 	 */
 	public Route<T> consume(final Consumer<T> consumer) {
-		observable.on(onValue, new Consumer<Event<T>>() {
+		final EventPool pool = node.getGraph().getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
 			@Override
 			public void accept(Event<T> ev) {
 				try {
 					consumer.accept(ev.getData());
 				} catch(Throwable t) {
-					node.notifyError(ev.copy(t));
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						node.invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
 				}
 			}
 		});
@@ -82,21 +102,34 @@ public class Route<T> {
 	@SuppressWarnings("unchecked")
 	public <V> Route<V> then(final Function<T, V> fn) {
 		final Route<V> newRoute = node.createRoute();
-		observable.on(onValue, new Consumer<Event<T>>() {
+		final EventPool pool = node.getGraph().getEventPool();
+		consumeValue(new Consumer<Event<T>>() {
 			@Override
 			public void accept(Event<T> ev) {
+				V obj;
 				try {
-					V obj = fn.apply(ev.getData());
-					newRoute.notifyValue(ev.copy(obj));
+					obj = fn.apply(ev.getData());
 				} catch(Throwable t) {
-					node.notifyError(ev.copy(t));
+					Event<Throwable> evx = pool.acquire(t);
+					try {
+						node.invokeError(evx);
+					} finally {
+						pool.release(evx);
+					}
+					return;
+				}
+				Event<V> evv = pool.derive(ev, obj);
+				try {
+					newRoute.invokeValue(evv);
+				} finally {
+					pool.release(evv, ev);
 				}
 			}
 		});
-		observable.on(onOtherwise, new Consumer<Event<T>>() {
+		consumeOtherwise(new Consumer<Event<T>>() {
 			@Override
 			public void accept(Event ev) {
-				newRoute.notifyOtherwise(ev);
+				newRoute.invokeOtherwise(ev);
 			}
 		});
 		return newRoute;
@@ -110,10 +143,10 @@ public class Route<T> {
 	 */
 	public Route<T> otherwise() {
 		final Route<T> newRoute = node.createRoute();
-		observable.on(onOtherwise, new Consumer<Event<T>>() {
+		consumeOtherwise(new Consumer<Event<T>>() {
 			@Override
 			public void accept(Event<T> ev) {
-				newRoute.notifyValue(ev);
+				newRoute.invokeValue(ev);
 			}
 		});
 		return newRoute;
@@ -129,12 +162,62 @@ public class Route<T> {
 		return (Node<T>)node;
 	}
 
-	void notifyValue(Event<T> ev) {
-		observable.notify(onValue.getObject(), ev);
+	int getId() {
+		return id;
+	}
+
+	String getName() {
+		return "route-" + id;
+	}
+
+	StageMetrics getMetrics() {
+		return metrics;
+	}
+
+	void setMetrics(StageMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Hand a value to this {@literal Route} from the stage that created it, calling its consumers in-line.
+	 *
+	 * @param ev
+	 * 		the event to publish
+	 */
+	void invokeValue(Event<T> ev) {
+		Trace trace = PooledEvent.traceOf(ev);
+		if(null != trace) {
+			trace.stamp(this);
+		}
+		StageMetrics metrics = this.metrics;
+		if(null == metrics) {
+			Subscribers.accept(valueConsumers, ev);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			Subscribers.accept(valueConsumers, ev);
+		} finally {
+			metrics.recordValue(System.nanoTime() - start);
+		}
+	}
+
+	void invokeOtherwise(Event<T> ev) {
+		StageMetrics metrics = this.metrics;
+		if(null != metrics) {
+			metrics.recordOtherwise();
+		}
+		Subscribers.accept(otherwiseConsumers, ev);
+	}
+
+	synchronized void consumeValue(Consumer<Event<T>> consumer) {
+		node.getGraph().assertNotCompiled();
+		valueConsumers = Subscribers.append(valueConsumers, consumer);
 	}
 
-	void notifyOtherwise(Event<T> ev) {
-		observable.notify(onOtherwise.getObject(), ev);
+	synchronized void consumeOtherwise(Consumer<Event<T>> consumer) {
+		node.getGraph().assertNotCompiled();
+		otherwiseConsumers = Subscribers.append(otherwiseConsumers, consumer);
 	}
 
 }
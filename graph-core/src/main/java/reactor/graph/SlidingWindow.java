@@ -0,0 +1,307 @@
+package reactor.graph;
+
+import reactor.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * The state of a window over the values coming into a {@link Node}, as created by {@link Node#window(long, long,
+ * java.util.concurrent.TimeUnit, Aggregator)} and {@link Node#window(int, int, Aggregator)}.
+ * <p>
+ * The window is split into panes whose length divides both its size and its slide, kept in a ring. Values are folded
+ * into the aggregate of the current pane, and whenever the window slides, the aggregates of the panes it covers are
+ * merged. The panes are advanced either by a count of values or by the {@literal Node's} timer, so a window never
+ * holds on to the values themselves and expiring a pane is just starting over in its slot.
+ * </p>
+ * <p>
+ * The panes of the built-in {@link Aggregators} are primitive arrays updated in place, so folding in a value does not
+ * allocate. Other {@link Aggregator Aggregators} keep one aggregate object per pane.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of values being aggregated
+ * @param <A>
+ * 		the type of the aggregate
+ */
+abstract class SlidingWindow<T, A> {
+
+	/**
+	 * The largest number of panes a window may have, which bounds the memory it takes.
+	 */
+	static final int MAX_PANES = 1 << 16;
+
+	final long[] counts;
+
+	private final int  panesPerSlide;
+	private final long valuesPerPane;
+
+	private int  current;
+	private long closedPanes;
+
+	SlidingWindow(int panes, int panesPerSlide, long valuesPerPane) {
+		this.counts = new long[panes];
+		this.panesPerSlide = panesPerSlide;
+		this.valuesPerPane = valuesPerPane;
+	}
+
+	/**
+	 * Create a window.
+	 *
+	 * @param aggregator
+	 * 		the aggregator folding the values
+	 * @param panes
+	 * 		the number of panes in the window
+	 * @param panesPerSlide
+	 * 		the number of panes the window slides by
+	 * @param valuesPerPane
+	 * 		the number of values after which a pane is closed, or {@literal 0} to only close panes when {@link
+	 * 		#advance()} is called
+	 * @param <T>
+	 * 		the type of values being aggregated
+	 * @param <A>
+	 * 		the type of the aggregate
+	 *
+	 * @return the new window
+	 */
+	@SuppressWarnings("unchecked")
+	static <T, A> SlidingWindow<T, A> create(Aggregator<? super T, A> aggregator,
+	                                         int panes,
+	                                         int panesPerSlide,
+	                                         long valuesPerPane) {
+		if(aggregator instanceof Aggregators.LongAggregator) {
+			return (SlidingWindow<T, A>)new LongPanes<>((Aggregators.LongAggregator<? super T>)aggregator,
+			                                            panes,
+			                                            panesPerSlide,
+			                                            valuesPerPane);
+		}
+		if(aggregator instanceof Aggregators.DoubleAggregator) {
+			return (SlidingWindow<T, A>)new DoublePanes<>((Aggregators.DoubleAggregator<? super T>)aggregator,
+			                                              panes,
+			                                              panesPerSlide,
+			                                              valuesPerPane);
+		}
+		return new ObjectPanes<>(aggregator, panes, panesPerSlide, valuesPerPane);
+	}
+
+	/**
+	 * Get the length of the panes of a window, which is the greatest common divisor of its size and slide.
+	 *
+	 * @param size
+	 * 		the size of the window
+	 * @param slide
+	 * 		the slide of the window
+	 *
+	 * @return the length of the panes
+	 */
+	static long paneLength(long size, long slide) {
+		while(slide != 0) {
+			long r = size % slide;
+			size = slide;
+			slide = r;
+		}
+		return size;
+	}
+
+	/**
+	 * Get the number of panes of the given length that make up the given length of a window.
+	 *
+	 * @param length
+	 * 		the size or slide of the window
+	 * @param paneLength
+	 * 		the length of the panes, which divides {@code length}
+	 *
+	 * @return the number of panes, which is at most {@link #MAX_PANES}
+	 */
+	static int panes(long length, long paneLength) {
+		long panes = length / paneLength;
+		Assert.isTrue(panes <= MAX_PANES,
+		              "A window cannot be split into more than " + MAX_PANES + " panes, but its size and slide need " +
+				              panes + ".");
+		return (int)panes;
+	}
+
+	/**
+	 * Fold a value into the current pane, closing the pane if it is full.
+	 *
+	 * @param value
+	 * 		the value
+	 *
+	 * @return the aggregate of the window if closing the pane slid it, {@literal null} otherwise
+	 */
+	synchronized A add(T value) {
+		fold(current, value);
+		if(++counts[current] == valuesPerPane) {
+			return advance();
+		}
+		return null;
+	}
+
+	/**
+	 * Close the current pane and start the next one.
+	 *
+	 * @return the aggregate of the window if closing the pane slid it and the window holds any values, {@literal null}
+	 * otherwise
+	 */
+	synchronized A advance() {
+		A result = null;
+		int panes = counts.length;
+		// the first window is only complete once all of its panes have been closed
+		if(++closedPanes >= panes && (closedPanes - panes) % panesPerSlide == 0) {
+			for(long count : counts) {
+				if(count > 0) {
+					result = aggregate();
+					break;
+				}
+			}
+		}
+		current = (current + 1) % panes;
+		clear(current);
+		counts[current] = 0;
+		return result;
+	}
+
+	/**
+	 * Get the index of a pane by its age.
+	 *
+	 * @param age
+	 * 		the number of panes opened since the pane, so {@literal 0} for the current one
+	 *
+	 * @return the index of the pane
+	 */
+	final int pane(int age) {
+		return (current - age + counts.length) % counts.length;
+	}
+
+	/**
+	 * Fold a value into the aggregate of a pane.
+	 *
+	 * @param pane
+	 * 		the index of the pane
+	 * @param value
+	 * 		the value
+	 */
+	abstract void fold(int pane, T value);
+
+	/**
+	 * Reset the aggregate of a pane to that of no values.
+	 *
+	 * @param pane
+	 * 		the index of the pane
+	 */
+	abstract void clear(int pane);
+
+	/**
+	 * Merge the aggregates of the panes holding values, oldest first.
+	 *
+	 * @return the aggregate of the window
+	 */
+	abstract A aggregate();
+
+	private static final class ObjectPanes<T, A> extends SlidingWindow<T, A> {
+		private final Aggregator<? super T, A> aggregator;
+		private final Object[]                 aggregates;
+
+		ObjectPanes(Aggregator<? super T, A> aggregator, int panes, int panesPerSlide, long valuesPerPane) {
+			super(panes, panesPerSlide, valuesPerPane);
+			this.aggregator = aggregator;
+			this.aggregates = new Object[panes];
+			Arrays.fill(aggregates, aggregator.zero());
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		void fold(int pane, T value) {
+			aggregates[pane] = aggregator.add((A)aggregates[pane], value);
+		}
+
+		@Override
+		void clear(int pane) {
+			aggregates[pane] = aggregator.zero();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		A aggregate() {
+			A aggregate = aggregator.zero();
+			for(int age = counts.length - 1; age >= 0; age--) {
+				int pane = pane(age);
+				if(counts[pane] > 0) {
+					aggregate = aggregator.merge(aggregate, (A)aggregates[pane]);
+				}
+			}
+			return aggregate;
+		}
+	}
+
+	private static final class LongPanes<T> extends SlidingWindow<T, Long> {
+		private final Aggregators.LongAggregator<? super T> aggregator;
+		private final long[]                                aggregates;
+
+		LongPanes(Aggregators.LongAggregator<? super T> aggregator, int panes, int panesPerSlide, long valuesPerPane) {
+			super(panes, panesPerSlide, valuesPerPane);
+			this.aggregator = aggregator;
+			this.aggregates = new long[panes];
+			Arrays.fill(aggregates, aggregator.zeroLong());
+		}
+
+		@Override
+		void fold(int pane, T value) {
+			aggregates[pane] = aggregator.addLong(aggregates[pane], value);
+		}
+
+		@Override
+		void clear(int pane) {
+			aggregates[pane] = aggregator.zeroLong();
+		}
+
+		@Override
+		Long aggregate() {
+			long aggregate = aggregator.zeroLong();
+			for(int age = counts.length - 1; age >= 0; age--) {
+				int pane = pane(age);
+				if(counts[pane] > 0) {
+					aggregate = aggregator.mergeLong(aggregate, aggregates[pane]);
+				}
+			}
+			return aggregate;
+		}
+	}
+
+	private static final class DoublePanes<T> extends SlidingWindow<T, Double> {
+		private final Aggregators.DoubleAggregator<? super T> aggregator;
+		private final double[]                                aggregates;
+
+		DoublePanes(Aggregators.DoubleAggregator<? super T> aggregator,
+		            int panes,
+		            int panesPerSlide,
+		            long valuesPerPane) {
+			super(panes, panesPerSlide, valuesPerPane);
+			this.aggregator = aggregator;
+			this.aggregates = new double[panes];
+			Arrays.fill(aggregates, aggregator.zeroDouble());
+		}
+
+		@Override
+		void fold(int pane, T value) {
+			aggregates[pane] = aggregator.addDouble(aggregates[pane], value);
+		}
+
+		@Override
+		void clear(int pane) {
+			aggregates[pane] = aggregator.zeroDouble();
+		}
+
+		@Override
+		Double aggregate() {
+			double aggregate = aggregator.zeroDouble();
+			for(int age = counts.length - 1; age >= 0; age--) {
+				int pane = pane(age);
+				if(counts[pane] > 0) {
+					aggregate = aggregator.mergeDouble(aggregate, aggregates[pane]);
+				}
+			}
+			return aggregate;
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+package reactor.graph;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of a single {@link Node} or {@link Route} of a {@link Graph}, collected while metrics are {@link
+ * Graph#enableMetrics() enabled}.
+ * <p>
+ * Processing times are measured from the moment a value reaches the stage until the stage has handed it to all of its
+ * consumers. Since stages sharing a {@literal Dispatcher} run in-line, this includes the time spent in the stages fused
+ * downstream of it.
+ * </p>
+ * <p>
+ * While metrics are enabled, every value a stage processes costs a few atomic updates of its metrics and two reads of
+ * {@link System#nanoTime()}. The stages of one {@literal Node} share its metrics, so {@literal Dispatcher} threads
+ * processing values of the same {@literal Node} contend on them.
+ * </p>
+ */
+public class StageMetrics {
+
+	private final AtomicLong events    = new AtomicLong();
+	private final AtomicLong otherwise = new AtomicLong();
+	private final AtomicLong errors    = new AtomicLong();
+	private final AtomicLong pending   = new AtomicLong();
+	private final Histogram  processingTime = new Histogram();
+
+	private final Node<?>  node;
+	private final Route<?> route;
+
+	StageMetrics(Node<?> node) {
+		this.node = node;
+		this.route = null;
+	}
+
+	StageMetrics(Route<?> route) {
+		this.node = null;
+		this.route = route;
+	}
+
+	/**
+	 * Get the name of the stage: the name of a {@literal Node}, or {@code route-<id>} for a {@literal Route}. The name
+	 * is looked up when asked for, so an anonymous {@literal Node} is only given one if its metrics are reported.
+	 *
+	 * @return the name of the stage
+	 */
+	public String getName() {
+		return (null != node ? node.getName() : route.getName());
+	}
+
+	/**
+	 * Whether these are the metrics of the {@literal Node} with the given name, without naming anonymous {@literal
+	 * Nodes}.
+	 *
+	 * @param name
+	 * 		the name of the {@literal Node}
+	 *
+	 * @return {@literal true} if these are the {@literal Node's} metrics
+	 */
+	boolean isNode(String name) {
+		return null != node && node.hasName(name);
+	}
+
+	/**
+	 * Get the number of values processed by the stage.
+	 *
+	 * @return the number of values
+	 */
+	public long getEventCount() {
+		return events.get();
+	}
+
+	/**
+	 * Get the number of values that failed the predicate of a {@literal Route} and went to its {@link Route#otherwise()
+	 * otherwise} branch. Always {@literal 0} for a {@literal Node}.
+	 *
+	 * @return the number of values that failed the predicate
+	 */
+	public long getOtherwiseCount() {
+		return otherwise.get();
+	}
+
+	/**
+	 * Get the number of errors raised by the stage.
+	 *
+	 * @return the number of errors
+	 */
+	public long getErrorCount() {
+		return errors.get();
+	}
+
+	/**
+	 * Get the number of values that have been dispatched to the stage but not yet processed.
+	 *
+	 * @return the number of pending values
+	 */
+	public long getPending() {
+		return Math.max(0, pending.get());
+	}
+
+	/**
+	 * Get the histogram of the processing time of each value, in nanoseconds.
+	 *
+	 * @return the processing time histogram
+	 */
+	public Histogram getProcessingTime() {
+		return processingTime;
+	}
+
+	void recordValue(long nanos) {
+		events.incrementAndGet();
+		processingTime.record(nanos);
+	}
+
+	void recordOtherwise() {
+		otherwise.incrementAndGet();
+	}
+
+	void recordError() {
+		errors.incrementAndGet();
+	}
+
+	void incrementPending() {
+		pending.incrementAndGet();
+	}
+
+	void decrementPending() {
+		pending.decrementAndGet();
+	}
+
+	@Override
+	public String toString() {
+		return "StageMetrics{" +
+				"name='" + getName() + '\'' +
+				", events=" + events +
+				", otherwise=" + otherwise +
+				", errors=" + errors +
+				", pending=" + getPending() +
+				", processingTime=" + processingTime +
+				'}';
+	}
+
+}
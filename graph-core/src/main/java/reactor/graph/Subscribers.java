@@ -0,0 +1,65 @@
+package reactor.graph;
+
+import reactor.event.Event;
+import reactor.function.Consumer;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for the small, copy-on-write arrays of downstream {@link reactor.function.Consumer Consumers} held by {@link
+ * Node Nodes} and {@link Route Routes}, which are notified directly, without going through the selector registry of a
+ * {@link reactor.core.Reactor}. Adding a {@literal Consumer} is expensive but only happens while a {@link Graph} is
+ * being wired; notifying them is a plain loop over an array.
+ */
+final class Subscribers {
+
+	static final Consumer[] EMPTY = new Consumer[0];
+
+	private Subscribers() {
+	}
+
+	/**
+	 * Copy the given array of {@link reactor.function.Consumer Consumers}, adding another one at the end.
+	 *
+	 * @param consumers
+	 * 		the current {@literal Consumers}
+	 * @param consumer
+	 * 		the {@literal Consumer} to add
+	 * @param <T>
+	 * 		the type of data carried by the published events
+	 *
+	 * @return the new array
+	 */
+	static <T> Consumer<Event<T>>[] append(Consumer<Event<T>>[] consumers, Consumer<Event<T>> consumer) {
+		Consumer<Event<T>>[] newConsumers = Arrays.copyOf(consumers, consumers.length + 1);
+		newConsumers[consumers.length] = consumer;
+		return newConsumers;
+	}
+
+	/**
+	 * Notify each of the given {@link reactor.function.Consumer Consumers} of an event.
+	 *
+	 * @param consumers
+	 * 		the {@literal Consumers} to notify
+	 * @param ev
+	 * 		the event
+	 * @param <T>
+	 * 		the type of the event's data
+	 */
+	static <T> void accept(Consumer<Event<T>>[] consumers, Event<T> ev) {
+		if(consumers.length == 1) {
+			consumers[0].accept(ev);
+			return;
+		}
+		// every consumer must see the original data, so none of them may replace it in place
+		PooledEvent.share(ev);
+		try {
+			for(Consumer<Event<T>> consumer : consumers) {
+				consumer.accept(ev);
+			}
+		} finally {
+			PooledEvent.unshare(ev);
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package reactor.graph;
+
+import reactor.event.Event;
+import reactor.util.Assert;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@literal Switch} routes each value coming into a {@link Node} to one of several {@literal Nodes}, chosen by
+ * looking up the key extracted from the value in a hash table of cases. Unlike a chain of {@link Node#when(
+ * reactor.function.Predicate) when} and {@link Route#otherwise() otherwise} {@literal Routes}, which test their
+ * predicates one after the other, routing a value costs a single lookup however many cases there are.
+ * <p>
+ * Values whose key matches no case go to the {@link #defaultTo(String) default} {@literal Node}, or are dropped if
+ * there is none.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of the routed values
+ * @param <K>
+ * 		the type of the keys
+ */
+public class Switch<T, K> {
+
+	private final ConcurrentHashMap<K, Target<T>> cases = new ConcurrentHashMap<>();
+
+	private final Node<T> node;
+
+	private volatile Target<T> defaultTarget;
+
+	Switch(Node<T> node) {
+		this.node = node;
+	}
+
+	/**
+	 * Route values whose key equals the given key to the named {@literal Node}, which must already exist in the
+	 * {@literal Graph}.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param nodeName
+	 * 		name of the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	public Switch<T, K> caseOf(K key, String nodeName) {
+		return caseOf(key, (Node<T>)node.getGraph().getNode(nodeName));
+	}
+
+	/**
+	 * Route values whose key equals the given key to the given {@literal Node}, which must belong to the same {@literal
+	 * Graph}.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param target
+	 * 		the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	public Switch<T, K> caseOf(K key, Node<T> target) {
+		node.getGraph().assertNotCompiled();
+		Assert.notNull(key, "Case key cannot be null.");
+		Assert.isTrue(null == cases.putIfAbsent(key, Target.of(node, target)), "A case for key '" + key + "' already exists.");
+		return this;
+	}
+
+	/**
+	 * Route values whose key matches no case to the named {@literal Node}, which must already exist in the {@literal
+	 * Graph}.
+	 *
+	 * @param nodeName
+	 * 		name of the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	public Switch<T, K> defaultTo(String nodeName) {
+		return defaultTo((Node<T>)node.getGraph().getNode(nodeName));
+	}
+
+	/**
+	 * Route values whose key matches no case to the given {@literal Node}, which must belong to the same {@literal
+	 * Graph}.
+	 *
+	 * @param target
+	 * 		the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	public Switch<T, K> defaultTo(Node<T> target) {
+		node.getGraph().assertNotCompiled();
+		Assert.state(null == defaultTarget, "A default has already been set.");
+		this.defaultTarget = Target.of(node, target);
+		return this;
+	}
+
+	/**
+	 * Hand the given event to the {@literal Node} of the case matching the given key.
+	 *
+	 * @param ev
+	 * 		the event to route
+	 * @param key
+	 * 		the key extracted from the event's data
+	 */
+	void route(Event<T> ev, K key) {
+		Target<T> target = (null != key ? cases.get(key) : null);
+		if(null == target) {
+			target = defaultTarget;
+			if(null == target) {
+				return;
+			}
+		}
+		target.accept(ev);
+	}
+
+}
@@ -0,0 +1,83 @@
+package reactor.graph;
+
+import reactor.event.Event;
+import reactor.util.Assert;
+
+/**
+ * A {@link Node} that values are forwarded to from a stage of another {@literal Node}. Whether the two share a
+ * {@literal Dispatcher} is worked out once, so forwarding a value either calls the target in-line or hands it a copy
+ * of the event on its own {@literal Dispatcher}.
+ *
+ * @param <T>
+ * 		the type of the forwarded values
+ */
+final class Target<T> {
+
+	private final Node<?>   source;
+	private final Node<T>   node;
+	private final EventPool pool;
+	private final boolean   fused;
+
+	private Target(Node<?> source, Node<T> node, EventPool pool, boolean fused) {
+		this.source = source;
+		this.node = node;
+		this.pool = pool;
+		this.fused = fused;
+	}
+
+	/**
+	 * Create a {@literal Target} for forwarding values from the given source {@literal Node}.
+	 *
+	 * @param source
+	 * 		the {@literal Node} whose stage forwards values
+	 * @param node
+	 * 		the {@literal Node} to forward values to, which must belong to the same {@literal Graph}
+	 * @param <T>
+	 * 		the type of the forwarded values
+	 *
+	 * @return the new {@literal Target}
+	 */
+	static <T> Target<T> of(Node<?> source, Node<T> node) {
+		Assert.isTrue(node.getGraph() == source.getGraph(), "Node " + node + " belongs to another Graph.");
+		return new Target<>(source,
+		                    node,
+		                    source.getGraph().getEventPool(),
+		                    node.getDispatcher() == source.getDispatcher());
+	}
+
+	/**
+	 * Forward an event to the target {@literal Node}. The event stays owned by the calling task. A bounded target
+	 * {@literal Node} on another {@literal Dispatcher} that is full refuses the value, which is reported as an error of
+	 * the source {@literal Node}, as is a failure to extract the key of a partitioned target.
+	 *
+	 * @param ev
+	 * 		the event to forward
+	 */
+	void accept(Event<T> ev) {
+		if(fused) {
+			node.invokeValue(ev);
+		} else {
+			// the event stays with this task, so the other Dispatcher gets its own
+			Event<T> forked = pool.fork(ev);
+			boolean accepted;
+			try {
+				accepted = node.offerValue(forked);
+			} catch(Throwable t) {
+				// the key of a partitioned target could not be extracted
+				pool.release(forked);
+				Event<Throwable> evx = pool.acquire(t);
+				try {
+					source.invokeError(evx);
+				} finally {
+					pool.release(evx);
+				}
+				return;
+			}
+			if(!accepted) {
+				pool.release(forked);
+				source.refused(node);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,236 @@
+package reactor.graph;
+
+import reactor.function.Function;
+import reactor.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds which of a set of terms occur in a string in a single pass over the string, however many terms there are. The
+ * terms are compiled into an <a href="http://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">Aho-Corasick</a>
+ * automaton whose transitions are stored in flat, sorted arrays.
+ * <p>
+ * As a {@link reactor.function.Function}, a {@literal TermMatcher} returns the term it {@link #find(CharSequence)
+ * finds} in a value, so it can be passed to {@link Node#switchOn(reactor.function.Function)} to route values by the
+ * term they contain.
+ * </p>
+ */
+public final class TermMatcher implements Function<String, String> {
+
+	private final String[] terms;
+	// the transitions of state s are keys[offsets[s]] to keys[offsets[s + 1] - 1], sorted, leading to targets[...]
+	private final int[]    offsets;
+	private final char[]   keys;
+	private final int[]    targets;
+	private final int[]    failures;
+	// the term spelled out by each state, or -1
+	private final int[]    ends;
+	// the longest term that is a suffix of each state, or -1
+	private final int[]    outputs;
+
+	private TermMatcher(Collection<String> terms) {
+		List<String> termList = new ArrayList<>();
+		List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+		List<Integer> stateTerms = new ArrayList<>();
+		edges.add(new TreeMap<Character, Integer>());
+		stateTerms.add(-1);
+		for(String term : terms) {
+			Assert.isTrue(null != term && !term.isEmpty(), "Terms cannot be null or empty.");
+			int state = 0;
+			for(int i = 0; i < term.length(); i++) {
+				Integer next = edges.get(state).get(term.charAt(i));
+				if(null == next) {
+					next = edges.size();
+					edges.get(state).put(term.charAt(i), next);
+					edges.add(new TreeMap<Character, Integer>());
+					stateTerms.add(-1);
+				}
+				state = next;
+			}
+			if(stateTerms.get(state) < 0) {
+				stateTerms.set(state, termList.size());
+				termList.add(term);
+			}
+		}
+
+		int states = edges.size();
+		this.terms = termList.toArray(new String[termList.size()]);
+		this.offsets = new int[states + 1];
+		this.ends = new int[states];
+		int transitions = 0;
+		for(int s = 0; s < states; s++) {
+			offsets[s] = transitions;
+			transitions += edges.get(s).size();
+			ends[s] = stateTerms.get(s);
+		}
+		offsets[states] = transitions;
+		this.keys = new char[transitions];
+		this.targets = new int[transitions];
+		for(int s = 0; s < states; s++) {
+			int i = offsets[s];
+			for(Map.Entry<Character, Integer> edge : edges.get(s).entrySet()) {
+				keys[i] = edge.getKey();
+				targets[i++] = edge.getValue();
+			}
+		}
+
+		// breadth-first, so that the failure state of every state has been resolved before the state itself
+		this.failures = new int[states];
+		this.outputs = new int[states];
+		outputs[0] = -1;
+		int[] queue = new int[states];
+		int head = 0, tail = 0;
+		for(int i = offsets[0]; i < offsets[1]; i++) {
+			int child = targets[i];
+			failures[child] = 0;
+			outputs[child] = ends[child];
+			queue[tail++] = child;
+		}
+		while(head < tail) {
+			int s = queue[head++];
+			for(int i = offsets[s]; i < offsets[s + 1]; i++) {
+				int child = targets[i];
+				int f = failures[s];
+				int next;
+				while((next = transition(f, keys[i])) < 0 && f != 0) {
+					f = failures[f];
+				}
+				failures[child] = (next >= 0 ? next : 0);
+				outputs[child] = (ends[child] >= 0 ? ends[child] : outputs[failures[child]]);
+				queue[tail++] = child;
+			}
+		}
+	}
+
+	/**
+	 * Compile a {@literal TermMatcher} for the given terms.
+	 *
+	 * @param terms
+	 * 		the terms to look for, none of which may be empty
+	 *
+	 * @return the new {@literal TermMatcher}
+	 */
+	public static TermMatcher of(Collection<String> terms) {
+		return new TermMatcher(terms);
+	}
+
+	/**
+	 * Compile a {@literal TermMatcher} for the given terms.
+	 *
+	 * @param terms
+	 * 		the terms to look for, none of which may be empty
+	 *
+	 * @return the new {@literal TermMatcher}
+	 */
+	public static TermMatcher of(String... terms) {
+		return new TermMatcher(Arrays.asList(terms));
+	}
+
+	/**
+	 * Find the first term occurring in the given string. Of the terms occurring in the string, the one that ends first
+	 * is returned, and of several terms ending at the same position, the longest.
+	 *
+	 * @param s
+	 * 		the string to search
+	 *
+	 * @return the term found, or {@literal null} if the string contains none of the terms
+	 */
+	public String find(CharSequence s) {
+		int state = 0;
+		for(int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			int next;
+			while((next = transition(state, c)) < 0 && state != 0) {
+				state = failures[state];
+			}
+			state = (next >= 0 ? next : 0);
+			if(outputs[state] >= 0) {
+				return terms[outputs[state]];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Find the longest term the given string starts with.
+	 *
+	 * @param s
+	 * 		the string to search
+	 *
+	 * @return the term found, or {@literal null} if the string starts with none of the terms
+	 */
+	public String findPrefix(CharSequence s) {
+		int state = 0;
+		int found = -1;
+		for(int i = 0; i < s.length(); i++) {
+			state = transition(state, s.charAt(i));
+			if(state < 0) {
+				break;
+			}
+			if(ends[state] >= 0) {
+				found = ends[state];
+			}
+		}
+		return (found >= 0 ? terms[found] : null);
+	}
+
+	/**
+	 * Whether the given string contains any of the terms.
+	 *
+	 * @param s
+	 * 		the string to search
+	 *
+	 * @return {@literal true} if at least one term occurs in the string
+	 */
+	public boolean containsAny(CharSequence s) {
+		return null != find(s);
+	}
+
+	/**
+	 * Whether the given string starts with any of the terms.
+	 *
+	 * @param s
+	 * 		the string to search
+	 *
+	 * @return {@literal true} if the string starts with at least one term
+	 */
+	public boolean startsWithAny(CharSequence s) {
+		int state = 0;
+		for(int i = 0; i < s.length(); i++) {
+			state = transition(state, s.charAt(i));
+			if(state < 0) {
+				return false;
+			}
+			if(ends[state] >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Find the first term occurring in the given string.
+	 *
+	 * @param s
+	 * 		the string to search
+	 *
+	 * @return the term found, or {@literal null} if there is none or the string is {@literal null}
+	 *
+	 * @see #find(CharSequence)
+	 */
+	@Override
+	public String apply(String s) {
+		return (null != s ? find(s) : null);
+	}
+
+	private int transition(int state, char c) {
+		int i = Arrays.binarySearch(keys, offsets[state], offsets[state + 1], c);
+		return (i >= 0 ? targets[i] : -1);
+	}
+
+}
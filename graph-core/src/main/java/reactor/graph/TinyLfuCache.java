@@ -0,0 +1,217 @@
+package reactor.graph;
+
+import reactor.function.Function;
+import reactor.util.Assert;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, concurrent cache with a <a href="http://arxiv.org/abs/1512.00727">W-TinyLFU</a> style eviction policy.
+ * New entries go to a small LRU window. An entry leaving the window is only admitted to the main LRU region if it has
+ * been asked for more often than the entry it would displace, which is estimated with a count-min sketch of 4-bit
+ * counters that are halved periodically so that old popularity fades. A burst of values that are each seen only once
+ * therefore cannot flush the values that are asked for all the time.
+ * <p>
+ * Lookups read a {@link java.util.concurrent.ConcurrentHashMap} without locking. The eviction policy is guarded by a
+ * lock, which a hit only tries to take, so under contention some accesses are not recorded and the policy is
+ * approximate.
+ * </p>
+ *
+ * @param <K>
+ * 		the type of the keys
+ * @param <V>
+ * 		the type of the values
+ */
+final class TinyLfuCache<K, V> {
+
+	private static final Object NULL = new Object();
+
+	private final ConcurrentHashMap<K, Object> values    = new ConcurrentHashMap<>();
+	private final LinkedHashMap<K, Boolean>    window    = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<K, Boolean>    main      = new LinkedHashMap<>(16, 0.75f, true);
+	private final ReentrantLock                lock      = new ReentrantLock();
+	private final AtomicLong                   hits      = new AtomicLong();
+	private final AtomicLong                   misses    = new AtomicLong();
+	private final AtomicLong                   evictions = new AtomicLong();
+
+	private final int             windowMax;
+	private final int             mainMax;
+	private final FrequencySketch sketch;
+
+	TinyLfuCache(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "Cache size must be greater than 0.");
+		this.windowMax = Math.max(1, maxEntries / 100);
+		this.mainMax = maxEntries - windowMax;
+		this.sketch = new FrequencySketch(maxEntries);
+	}
+
+	/**
+	 * Get the value cached for the given key, computing and caching it if it is not there.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param fn
+	 * 		the function computing the value, which may be called more than once for the same key when several threads
+	 * 		miss at the same time
+	 *
+	 * @return the value
+	 */
+	@SuppressWarnings("unchecked")
+	V get(K key, Function<K, V> fn) {
+		if(null == key) {
+			misses.incrementAndGet();
+			return fn.apply(null);
+		}
+		Object value = values.get(key);
+		if(null != value) {
+			hits.incrementAndGet();
+			if(lock.tryLock()) {
+				try {
+					recordAccess(key);
+				} finally {
+					lock.unlock();
+				}
+			}
+			return (value == NULL ? null : (V)value);
+		}
+		misses.incrementAndGet();
+		V computed = fn.apply(key);
+		lock.lock();
+		try {
+			if(null == values.putIfAbsent(key, (null != computed ? computed : NULL))) {
+				sketch.increment(key.hashCode());
+				admit(key);
+			} else {
+				recordAccess(key);
+			}
+		} finally {
+			lock.unlock();
+		}
+		return computed;
+	}
+
+	long getHitCount() {
+		return hits.get();
+	}
+
+	long getMissCount() {
+		return misses.get();
+	}
+
+	long getEvictionCount() {
+		return evictions.get();
+	}
+
+	int size() {
+		return values.size();
+	}
+
+	private void recordAccess(K key) {
+		sketch.increment(key.hashCode());
+		// touching the entry moves it to the most recently used end of its region
+		if(null == window.get(key)) {
+			main.get(key);
+		}
+	}
+
+	private void admit(K key) {
+		window.put(key, Boolean.TRUE);
+		if(window.size() <= windowMax) {
+			return;
+		}
+		K candidate = removeEldest(window);
+		if(main.size() < mainMax) {
+			main.put(candidate, Boolean.TRUE);
+			return;
+		}
+		K victim = (mainMax > 0 ? main.keySet().iterator().next() : null);
+		if(null != victim && sketch.frequency(candidate.hashCode()) > sketch.frequency(victim.hashCode())) {
+			main.remove(victim);
+			main.put(candidate, Boolean.TRUE);
+			evict(victim);
+		} else {
+			evict(candidate);
+		}
+	}
+
+	private void evict(K key) {
+		values.remove(key);
+		evictions.incrementAndGet();
+	}
+
+	private static <K> K removeEldest(LinkedHashMap<K, Boolean> region) {
+		Iterator<K> keys = region.keySet().iterator();
+		K eldest = keys.next();
+		keys.remove();
+		return eldest;
+	}
+
+	/**
+	 * A count-min sketch of 4-bit counters, four rows deep, estimating how often each key has been seen recently.
+	 */
+	private static final class FrequencySketch {
+		private static final long[] SEEDS = {
+				0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+		};
+
+		private final long[][] rows = new long[4][];
+		private final int      mask;
+		private final int      sampleSize;
+		private       int      additions;
+
+		FrequencySketch(int maxEntries) {
+			int width = Math.max(16, Integer.highestOneBit(Math.max(1, maxEntries - 1)) << 1);
+			for(int i = 0; i < rows.length; i++) {
+				rows[i] = new long[width / 16];
+			}
+			this.mask = width - 1;
+			this.sampleSize = 10 * width;
+		}
+
+		void increment(int hash) {
+			boolean added = false;
+			for(int i = 0; i < rows.length; i++) {
+				int index = index(hash, i);
+				int shift = (index & 15) << 2;
+				long[] row = rows[i];
+				if(((row[index >>> 4] >>> shift) & 0xfL) < 15) {
+					row[index >>> 4] += 1L << shift;
+					added = true;
+				}
+			}
+			if(added && ++additions == sampleSize) {
+				reset();
+			}
+		}
+
+		int frequency(int hash) {
+			int frequency = 15;
+			for(int i = 0; i < rows.length; i++) {
+				int index = index(hash, i);
+				frequency = Math.min(frequency, (int)((rows[i][index >>> 4] >>> ((index & 15) << 2)) & 0xfL));
+			}
+			return frequency;
+		}
+
+		private int index(int hash, int row) {
+			long h = (hash + SEEDS[row]) * SEEDS[row];
+			h += h >>> 32;
+			return (int)h & mask;
+		}
+
+		private void reset() {
+			// halve every counter so that the sketch forgets old popularity
+			for(long[] row : rows) {
+				for(int i = 0; i < row.length; i++) {
+					row[i] = (row[i] >>> 1) & 0x7777777777777777L;
+				}
+			}
+			additions = sampleSize / 2;
+		}
+	}
+
+}
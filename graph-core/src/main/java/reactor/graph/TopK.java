@@ -0,0 +1,177 @@
+package reactor.graph;
+
+import reactor.tuple.Tuple;
+import reactor.tuple.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@code k} most frequent keys, as maintained by {@link Node#topK(reactor.function.Function, int)}.
+ * <p>
+ * Counting follows the Space-Saving algorithm: a fixed number of candidate counters is kept in a min-heap, and a key
+ * that has no counter takes over the smallest one, carrying on from its count. Any key occurring more than {@code n /
+ * candidates} times in a stream of {@code n} keys is therefore guaranteed to hold a counter, and no count is more than
+ * that smallest count too high. The leaderboard is the {@code k} largest counters, kept in rank order next to the
+ * heap. Counts only ever grow by one, so a counter rarely moves more than a place on the leaderboard at a time:
+ * counting a key costs {@code O(log k)}, and the leaderboard is only copied when a key enters it or changes places.
+ * </p>
+ *
+ * @param <K>
+ * 		the type of the keys
+ */
+final class TopK<K> {
+
+	/**
+	 * The number of counters kept for every place on the leaderboard.
+	 */
+	static final int CANDIDATES_PER_RANK = 64;
+	/**
+	 * The smallest number of counters kept, however short the leaderboard.
+	 */
+	static final int MIN_CANDIDATES      = 1024;
+
+	private final Map<K, Counter<K>> counters = new HashMap<>();
+	private final Counter<K>[] heap;
+	private final Counter<K>[] leaders;
+
+	private int size;
+	private int leaderCount;
+
+	@SuppressWarnings("unchecked")
+	TopK(int k) {
+		this.heap = new Counter[Math.max(k * CANDIDATES_PER_RANK, MIN_CANDIDATES)];
+		this.leaders = new Counter[k];
+	}
+
+	/**
+	 * Count one occurrence of the given key.
+	 *
+	 * @param key
+	 * 		the key, which must not be {@literal null}
+	 *
+	 * @return the new leaderboard if counting the key changed which keys are on it or their order, {@literal null}
+	 * otherwise
+	 */
+	synchronized List<Tuple2<K, Long>> add(K key) {
+		Counter<K> counter = counters.get(key);
+		boolean changed = false;
+		if(null != counter) {
+			counter.count++;
+			siftDown(counter.heapIndex);
+		} else if(size < heap.length) {
+			counter = new Counter<>(key);
+			counter.count = 1;
+			counters.put(key, counter);
+			heap[size] = counter;
+			siftUp(size++);
+		} else {
+			// take over the smallest counter
+			counter = heap[0];
+			counters.remove(counter.key);
+			counter.key = key;
+			counter.count++;
+			counters.put(key, counter);
+			siftDown(0);
+			// if it was on the leaderboard, a new key just took its place
+			changed = counter.rank >= 0;
+		}
+		return (rank(counter) || changed ? leaderboard() : null);
+	}
+
+	/**
+	 * Get the current leaderboard.
+	 *
+	 * @return the keys with the highest counts and their estimated counts, highest first
+	 */
+	synchronized List<Tuple2<K, Long>> leaderboard() {
+		List<Tuple2<K, Long>> board = new ArrayList<>(leaderCount);
+		for(int i = 0; i < leaderCount; i++) {
+			board.add(Tuple.of(leaders[i].key, leaders[i].count));
+		}
+		return Collections.unmodifiableList(board);
+	}
+
+	private boolean rank(Counter<K> counter) {
+		int r = counter.rank;
+		if(r < 0) {
+			if(leaderCount < leaders.length) {
+				r = leaderCount++;
+			} else if(counter.count > leaders[leaders.length - 1].count) {
+				r = leaders.length - 1;
+				leaders[r].rank = -1;
+			} else {
+				return false;
+			}
+			leaders[r] = counter;
+			counter.rank = r;
+			moveUp(counter);
+			return true;
+		}
+		return moveUp(counter);
+	}
+
+	private boolean moveUp(Counter<K> counter) {
+		int r = counter.rank;
+		int from = r;
+		while(r > 0 && leaders[r - 1].count < counter.count) {
+			leaders[r] = leaders[r - 1];
+			leaders[r].rank = r;
+			r--;
+		}
+		leaders[r] = counter;
+		counter.rank = r;
+		return r != from;
+	}
+
+	private void siftUp(int i) {
+		Counter<K> counter = heap[i];
+		while(i > 0) {
+			int parent = (i - 1) >>> 1;
+			if(heap[parent].count <= counter.count) {
+				break;
+			}
+			place(heap[parent], i);
+			i = parent;
+		}
+		place(counter, i);
+	}
+
+	private void siftDown(int i) {
+		Counter<K> counter = heap[i];
+		int half = size >>> 1;
+		while(i < half) {
+			int child = (i << 1) + 1;
+			int right = child + 1;
+			if(right < size && heap[right].count < heap[child].count) {
+				child = right;
+			}
+			if(counter.count <= heap[child].count) {
+				break;
+			}
+			place(heap[child], i);
+			i = child;
+		}
+		place(counter, i);
+	}
+
+	private void place(Counter<K> counter, int i) {
+		heap[i] = counter;
+		counter.heapIndex = i;
+	}
+
+	private static final class Counter<K> {
+		K    key;
+		long count;
+		int  heapIndex;
+		int  rank = -1;
+
+		Counter(K key) {
+			this.key = key;
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package reactor.graph;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The path of a single sampled value through a {@link Graph}: the time it was accepted and the time it reached each
+ * {@link Node} and {@link Route} on its way. All times are {@link System#nanoTime()} readings.
+ * <p>
+ * A {@literal Trace} is created with room for {@value #MAX_HOPS} hops so that stamping a hop does not allocate. Hops
+ * beyond that are dropped. A {@literal Trace} completes once every event carrying it has been released, which
+ * includes the hops made on other {@literal Dispatchers}.
+ * </p>
+ * <p>
+ * The records used while tracing are preallocated and reused once they drop out of the ring of completed {@literal
+ * Traces}, so the {@literal Traces} handed out by {@link Graph#traces()} are copies that stay as they are.
+ * </p>
+ */
+public final class Trace {
+
+	static final int MAX_HOPS = 64;
+
+	private final AtomicInteger hops = new AtomicInteger();
+	private final AtomicInteger refs = new AtomicInteger();
+
+	private final Object[] stages;
+	private final long[]   timestamps;
+	private final Tracer   tracer;
+	private       long     ingressTime;
+	private       long     completionTime;
+
+	Trace(Tracer tracer) {
+		this.tracer = tracer;
+		this.stages = new Object[MAX_HOPS];
+		this.timestamps = new long[MAX_HOPS];
+	}
+
+	private Trace(Trace trace) {
+		int hopCount = trace.getHopCount();
+		this.tracer = null;
+		this.stages = new Object[hopCount];
+		this.timestamps = new long[hopCount];
+		this.ingressTime = trace.ingressTime;
+		this.completionTime = trace.completionTime;
+		System.arraycopy(trace.stages, 0, stages, 0, hopCount);
+		System.arraycopy(trace.timestamps, 0, timestamps, 0, hopCount);
+		this.hops.set(hopCount);
+	}
+
+	/**
+	 * Get the time the value was accepted into the {@literal Graph}.
+	 *
+	 * @return the ingress time, in nanoseconds
+	 */
+	public long getIngressTime() {
+		return ingressTime;
+	}
+
+	/**
+	 * Get the time the last event carrying the value was released.
+	 *
+	 * @return the completion time, in nanoseconds
+	 */
+	public long getCompletionTime() {
+		return completionTime;
+	}
+
+	/**
+	 * Get the number of hops recorded.
+	 *
+	 * @return the number of hops
+	 */
+	public int getHopCount() {
+		return Math.min(hops.get(), stages.length);
+	}
+
+	/**
+	 * Get the name of the stage reached by the given hop: the name of a {@literal Node}, or {@code route-<id>} for a
+	 * {@literal Route}.
+	 *
+	 * @param hop
+	 * 		the index of the hop
+	 *
+	 * @return the name of the stage
+	 */
+	public String getStage(int hop) {
+		Object stage = stages[hop];
+		return (stage instanceof Node ? ((Node<?>)stage).getName() : ((Route<?>)stage).getName());
+	}
+
+	/**
+	 * Get the time the given hop was reached.
+	 *
+	 * @param hop
+	 * 		the index of the hop
+	 *
+	 * @return the time, in nanoseconds
+	 */
+	public long getTimestamp(int hop) {
+		return timestamps[hop];
+	}
+
+	/**
+	 * Start tracing a new value with this record, forgetting the value it traced before.
+	 *
+	 * @param ingressTime
+	 * 		the time the value was accepted
+	 *
+	 * @return {@literal this}
+	 */
+	Trace reset(long ingressTime) {
+		this.ingressTime = ingressTime;
+		this.completionTime = 0;
+		hops.set(0);
+		refs.set(1);
+		return this;
+	}
+
+	Trace copy() {
+		return new Trace(this);
+	}
+
+	void stamp(Object stage) {
+		int hop = hops.getAndIncrement();
+		if(hop < MAX_HOPS) {
+			stages[hop] = stage;
+			timestamps[hop] = System.nanoTime();
+		}
+	}
+
+	void retain() {
+		refs.incrementAndGet();
+	}
+
+	void release() {
+		if(refs.decrementAndGet() == 0) {
+			completionTime = System.nanoTime();
+			tracer.complete(this);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Trace{");
+		for(int i = 0; i < getHopCount(); i++) {
+			sb.append(i > 0 ? ", " : "").append(getStage(i)).append("=+").append(timestamps[i] - ingressTime);
+		}
+		return sb.append(", total=").append(completionTime - ingressTime).append('}').toString();
+	}
+
+}
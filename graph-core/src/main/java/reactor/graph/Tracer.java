@@ -0,0 +1,84 @@
+package reactor.graph;
+
+import reactor.event.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples values entering a {@link Graph} for tracing and keeps the most recently completed {@link Trace Traces} in a
+ * ring, overwriting the oldest ones once it is full.
+ * <p>
+ * The {@literal Trace} records are allocated up front: one per slot of the ring and as many again for values still
+ * being traced. A record overwritten in the ring goes back to the free records, and a value sampled while none are
+ * free is not traced. Only sampled values take the lock, so the rest pay for the sampler alone.
+ * </p>
+ */
+class Tracer {
+
+	private final Trace[] ring;
+	private final Trace[] free;
+	private final int     sampleRate;
+
+	private int  freeCount;
+	private long completed;
+
+	Tracer(int sampleRate, int capacity) {
+		this.sampleRate = sampleRate;
+		this.ring = new Trace[capacity];
+		this.free = new Trace[capacity * 2];
+		for(int i = 0; i < free.length; i++) {
+			free[i] = new Trace(this);
+		}
+		this.freeCount = free.length;
+	}
+
+	/**
+	 * Start a {@link Trace} on the given event if it is picked by the sampler and a record is free.
+	 *
+	 * @param ev
+	 * 		the event carrying a value that has just been accepted
+	 */
+	void sample(Event<?> ev) {
+		if(ev instanceof PooledEvent && ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+			Trace trace;
+			synchronized(this) {
+				if(freeCount == 0) {
+					return;
+				}
+				trace = free[--freeCount];
+				free[freeCount] = null;
+			}
+			((PooledEvent<?>)ev).setTrace(trace.reset(System.nanoTime()));
+		}
+	}
+
+	synchronized void complete(Trace trace) {
+		// values refused by a full start Node never made a hop
+		if(trace.getHopCount() > 0) {
+			int slot = (int)(completed++ % ring.length);
+			Trace evicted = ring[slot];
+			ring[slot] = trace;
+			trace = evicted;
+		}
+		if(null != trace) {
+			free[freeCount++] = trace;
+		}
+	}
+
+	/**
+	 * Get copies of the completed {@literal Traces} still held by the ring, oldest first.
+	 *
+	 * @return the completed {@literal Traces}
+	 */
+	synchronized List<Trace> traces() {
+		long start = Math.max(0, completed - ring.length);
+		List<Trace> traces = new ArrayList<>((int)(completed - start));
+		for(long i = start; i < completed; i++) {
+			traces.add(ring[(int)(i % ring.length)].copy());
+		}
+		return traces;
+	}
+
+}
@@ -0,0 +1,76 @@
+package reactor.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A table of values registered against types, which resolves the values matching the concrete class of an object with
+ * a single {@link ClassValue} lookup. The types matching a class are worked out the first time the class is seen and
+ * cached until another value is registered, so dispatching on type does not scan the registered types for every
+ * object.
+ *
+ * @param <V>
+ * 		the type of the registered values
+ */
+final class TypeCases<V> {
+
+	private static final Object[] NONE = new Object[0];
+
+	private volatile Class<?>[] types  = new Class<?>[0];
+	private volatile Object[]   values = NONE;
+	private volatile ClassValue<Object[]> matches = newCache();
+
+	/**
+	 * Register a value for the given type and all of its subtypes.
+	 *
+	 * @param type
+	 * 		the type
+	 * @param value
+	 * 		the value
+	 */
+	synchronized void add(Class<?> type, V value) {
+		Class<?>[] newTypes = Arrays.copyOf(types, types.length + 1);
+		Object[] newValues = Arrays.copyOf(values, values.length + 1);
+		newTypes[types.length] = type;
+		newValues[values.length] = value;
+		types = newTypes;
+		values = newValues;
+		matches = newCache();
+	}
+
+	/**
+	 * Get the values whose type is the given class or one of its supertypes, in the order they were registered. The
+	 * returned array must not be modified.
+	 *
+	 * @param type
+	 * 		the concrete class of an object
+	 *
+	 * @return the matching values, which are empty if there are none
+	 */
+	Object[] matching(Class<?> type) {
+		return matches.get(type);
+	}
+
+	private ClassValue<Object[]> newCache() {
+		return new ClassValue<Object[]>() {
+			@Override
+			protected Object[] computeValue(Class<?> type) {
+				Class<?>[] types;
+				Object[] values;
+				synchronized(TypeCases.this) {
+					types = TypeCases.this.types;
+					values = TypeCases.this.values;
+				}
+				List<Object> matching = new ArrayList<>();
+				for(int i = 0; i < types.length; i++) {
+					if(types[i].isAssignableFrom(type)) {
+						matching.add(values[i]);
+					}
+				}
+				return (matching.isEmpty() ? NONE : matching.toArray());
+			}
+		};
+	}
+
+}
@@ -0,0 +1,118 @@
+package reactor.graph;
+
+import reactor.event.Event;
+import reactor.util.Assert;
+
+/**
+ * A {@literal TypeSwitch} routes each value coming into a {@link Node} to the {@literal Node} registered for the value's
+ * type. A value goes to the first case, in the order they were added, whose type is the value's class or one of its
+ * supertypes. The case matching each concrete class is resolved once and cached in a {@link ClassValue}, so routing
+ * values of many different types costs a single lookup rather than a type check per case.
+ * <p>
+ * Values matching no case, including {@literal null}, go to the {@link #defaultTo(String) default} {@literal Node}, or
+ * are dropped if there is none.
+ * </p>
+ *
+ * @param <T>
+ * 		the type of the routed values
+ */
+public class TypeSwitch<T> {
+
+	private final TypeCases<Target<?>> cases = new TypeCases<>();
+
+	private final Node<T> node;
+
+	private volatile Target<T> defaultTarget;
+
+	TypeSwitch(Node<T> node) {
+		this.node = node;
+	}
+
+	/**
+	 * Route values of the given type to the named {@literal Node}, which must already exist in the {@literal Graph}.
+	 *
+	 * @param type
+	 * 		the type of values to route
+	 * @param nodeName
+	 * 		name of the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	public TypeSwitch<T> caseOf(Class<? extends T> type, String nodeName) {
+		return caseOf((Class<T>)type, (Node<T>)node.getGraph().getNode(nodeName));
+	}
+
+	/**
+	 * Route values of the given type to the given {@literal Node}, which must belong to the same {@literal Graph}.
+	 *
+	 * @param type
+	 * 		the type of values to route
+	 * @param target
+	 * 		the {@literal Node} to forward values to
+	 * @param <X>
+	 * 		the type of values to route
+	 *
+	 * @return {@literal this}
+	 */
+	public <X extends T> TypeSwitch<T> caseOf(Class<X> type, Node<X> target) {
+		node.getGraph().assertNotCompiled();
+		Assert.notNull(type, "Case type cannot be null.");
+		cases.add(type, Target.of(node, target));
+		return this;
+	}
+
+	/**
+	 * Route values matching no case to the named {@literal Node}, which must already exist in the {@literal Graph}.
+	 *
+	 * @param nodeName
+	 * 		name of the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	public TypeSwitch<T> defaultTo(String nodeName) {
+		return defaultTo((Node<T>)node.getGraph().getNode(nodeName));
+	}
+
+	/**
+	 * Route values matching no case to the given {@literal Node}, which must belong to the same {@literal Graph}.
+	 *
+	 * @param target
+	 * 		the {@literal Node} to forward values to
+	 *
+	 * @return {@literal this}
+	 */
+	public TypeSwitch<T> defaultTo(Node<T> target) {
+		node.getGraph().assertNotCompiled();
+		Assert.state(null == defaultTarget, "A default has already been set.");
+		this.defaultTarget = Target.of(node, target);
+		return this;
+	}
+
+	/**
+	 * Hand the given event to the {@literal Node} of the case matching the type of its data.
+	 *
+	 * @param ev
+	 * 		the event to route
+	 */
+	@SuppressWarnings("unchecked")
+	void route(Event<T> ev) {
+		T data = ev.getData();
+		Target<T> target = null;
+		if(null != data) {
+			Object[] matching = cases.matching(data.getClass());
+			if(matching.length > 0) {
+				target = (Target<T>)matching[0];
+			}
+		}
+		if(null == target) {
+			target = defaultTarget;
+			if(null == target) {
+				return;
+			}
+		}
+		target.accept(ev);
+	}
+
+}
@@ -0,0 +1,16 @@
+package reactor.graph.function;
+
+/**
+ * Consumes a primitive {@code double} value without boxing it.
+ */
+public interface DoubleConsumer {
+
+	/**
+	 * Execute the logic of the action, accepting the given value.
+	 *
+	 * @param value
+	 * 		the value to accept
+	 */
+	void accept(double value);
+
+}
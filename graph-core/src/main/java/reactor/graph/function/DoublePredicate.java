@@ -0,0 +1,18 @@
+package reactor.graph.function;
+
+/**
+ * Determines if a primitive {@code double} value matches some criteria, without boxing it.
+ */
+public interface DoublePredicate {
+
+	/**
+	 * Returns {@literal true} when the given value matches the criteria of this {@literal DoublePredicate}.
+	 *
+	 * @param value
+	 * 		the value to test
+	 *
+	 * @return {@literal true} if the value matches
+	 */
+	boolean test(double value);
+
+}
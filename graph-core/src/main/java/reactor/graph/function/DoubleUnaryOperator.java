@@ -0,0 +1,18 @@
+package reactor.graph.function;
+
+/**
+ * Transforms a primitive {@code double} value into another {@code double} without boxing either of them.
+ */
+public interface DoubleUnaryOperator {
+
+	/**
+	 * Apply this operator to the given value.
+	 *
+	 * @param value
+	 * 		the value to transform
+	 *
+	 * @return the transformed value
+	 */
+	double applyAsDouble(double value);
+
+}
@@ -0,0 +1,16 @@
+package reactor.graph.function;
+
+/**
+ * Consumes a primitive {@code long} value without boxing it.
+ */
+public interface LongConsumer {
+
+	/**
+	 * Execute the logic of the action, accepting the given value.
+	 *
+	 * @param value
+	 * 		the value to accept
+	 */
+	void accept(long value);
+
+}
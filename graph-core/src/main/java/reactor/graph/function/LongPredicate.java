@@ -0,0 +1,18 @@
+package reactor.graph.function;
+
+/**
+ * Determines if a primitive {@code long} value matches some criteria, without boxing it.
+ */
+public interface LongPredicate {
+
+	/**
+	 * Returns {@literal true} when the given value matches the criteria of this {@literal LongPredicate}.
+	 *
+	 * @param value
+	 * 		the value to test
+	 *
+	 * @return {@literal true} if the value matches
+	 */
+	boolean test(long value);
+
+}
@@ -0,0 +1,18 @@
+package reactor.graph.function;
+
+/**
+ * Transforms a primitive {@code long} value into another {@code long} without boxing either of them.
+ */
+public interface LongUnaryOperator {
+
+	/**
+	 * Apply this operator to the given value.
+	 *
+	 * @param value
+	 * 		the value to transform
+	 *
+	 * @return the transformed value
+	 */
+	long applyAsLong(long value);
+
+}
@@ -0,0 +1,21 @@
+package reactor.graph.function;
+
+/**
+ * Extracts a primitive {@code double} from an object without boxing it.
+ *
+ * @param <T>
+ * 		the type of object the value is extracted from
+ */
+public interface ToDoubleFunction<T> {
+
+	/**
+	 * Extract a {@code double} from the given object.
+	 *
+	 * @param obj
+	 * 		the object to extract the value from
+	 *
+	 * @return the extracted value
+	 */
+	double applyAsDouble(T obj);
+
+}
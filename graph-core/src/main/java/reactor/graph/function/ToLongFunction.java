@@ -0,0 +1,21 @@
+package reactor.graph.function;
+
+/**
+ * Extracts a primitive {@code long} from an object without boxing it.
+ *
+ * @param <T>
+ * 		the type of object the value is extracted from
+ */
+public interface ToLongFunction<T> {
+
+	/**
+	 * Extract a {@code long} from the given object.
+	 *
+	 * @param obj
+	 * 		the object to extract the value from
+	 *
+	 * @return the extracted value
+	 */
+	long applyAsLong(T obj);
+
+}
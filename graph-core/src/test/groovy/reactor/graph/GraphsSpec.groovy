@@ -1,8 +1,19 @@
 package reactor.graph
 
 import reactor.core.Environment
+import reactor.event.dispatch.ThreadPoolExecutorDispatcher
 import reactor.function.Consumer
+import reactor.function.Function
+import reactor.function.Predicate
+import reactor.graph.function.ToDoubleFunction
+import reactor.tuple.Tuple2
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
 
 /**
  * @author Jon Brisbin
@@ -77,4 +88,690 @@ class GraphsSpec extends Specification {
 
 	}
 
+	def "Compiled Graphs route events through a frozen plan"() {
+
+		given: "a Graph"
+			int helloLength = 0, goodbyeLength = 0
+			Graph<String> graph = Graph.create(env, "sync")
+
+		when: "Routes are defined and the Graph is compiled"
+			graph.node("count.hello").consume({ s -> helloLength = s.size() })
+			graph.node("count.goodbye").consume({ s -> goodbyeLength = s.size() })
+			graph.node("start").
+					when({ String s -> s.startsWith("Hello") }).
+					routeTo("count.hello").
+					otherwise().
+					routeTo("count.goodbye")
+			graph.startNode("start").compile()
+			graph.accept("Hello World!")
+			graph.accept("Goodbye World!")
+
+		then: "counts should be correct"
+			graph.compiled
+			helloLength == 12
+			goodbyeLength == 14
+
+		when: "the compiled Graph is modified"
+			graph.node("late")
+
+		then: "an exception is thrown"
+			thrown(IllegalStateException)
+
+	}
+
+	def "Compiled Graphs run chains sharing a Dispatcher as a single task"() {
+
+		given: "a Graph using a multi-threaded Dispatcher"
+			def threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>())
+			def latch = new CountDownLatch(1)
+			Graph<String> graph = Graph.create(env, "workQueue")
+
+		when: "a multi-stage chain is compiled and data is accepted"
+			graph.node().
+					then({ String s -> threads << Thread.currentThread(); s.trim() } as Function<String, String>).
+					then({ String s -> threads << Thread.currentThread(); s.size() } as Function<String, Integer>).
+					then({ Integer i -> threads << Thread.currentThread(); i * 2 } as Function<Integer, Integer>).
+					consume({ Integer i -> threads << Thread.currentThread(); latch.countDown() } as Consumer<Integer>)
+			graph.compile()
+			graph.accept(" Hello World! ")
+
+		then: "every stage ran on the same thread"
+			latch.await(5, TimeUnit.SECONDS)
+			threads.size() == 1
+
+	}
+
+	def "Events are transformed in place only when no other consumer can see them"() {
+
+		given: "a Graph"
+			def lengths = []
+			def originals = []
+			Graph<String> graph = Graph.create(env, "sync")
+
+		when: "a Node fans out to a transformation chain and a consumer"
+			def start = graph.node()
+			start.
+					then({ String s -> s.trim() } as Function<String, String>).
+					then({ String s -> s.size() } as Function<String, Integer>).
+					consume({ Integer i -> lengths << i } as Consumer<Integer>)
+			start.consume({ String s -> originals << s } as Consumer<String>)
+			graph.compile()
+			3.times { graph.accept(" Hello World! ") }
+
+		then: "every consumer saw the right data and all events went back to the pool"
+			lengths == [12, 12, 12]
+			originals == [" Hello World! "] * 3
+			graph.eventPool.available() == 1024
+
+	}
+
+	def "Graphs accept batches of values"() {
+
+		given: "a Graph"
+			def values = []
+			Graph<String> graph = Graph.create(env, "sync")
+			graph.node().consume({ String s -> values << s } as Consumer<String>)
+
+		when: "a Collection and an array range are accepted"
+			graph.acceptAll(["a", "b", "c"])
+			graph.acceptAll(["w", "x", "y", "z"] as String[], 1, 2)
+
+		then: "every value was consumed in order"
+			values == ["a", "b", "c", "x", "y"]
+
+	}
+
+	def "Nodes publish batches when they fill up or time out"() {
+
+		given: "a Graph"
+			def batches = []
+			def latch = new CountDownLatch(3)
+			Graph<String> graph = Graph.create(env, "sync")
+			graph.node().
+					batch(3, 100, TimeUnit.MILLISECONDS).
+					consume({ List<String> batch -> batches << new ArrayList<>(batch); latch.countDown() } as Consumer<List<String>>)
+
+		when: "more values are accepted than fit in a batch"
+			graph.acceptAll(["a", "b", "c", "d", "e", "f", "g"])
+
+		then: "full batches are published immediately and the remainder after the delay"
+			latch.await(5, TimeUnit.SECONDS)
+			batches == [["a", "b", "c"], ["d", "e", "f"], ["g"]]
+
+	}
+
+	def "Nodes publish partial batches after delays shorter than a millisecond"() {
+
+		given: "a Graph batching with a delay of a few microseconds"
+			def batches = []
+			def latch = new CountDownLatch(1)
+			Graph<String> graph = Graph.create(env, "sync")
+			graph.node().
+					batch(3, 500, TimeUnit.MICROSECONDS).
+					consume({ List<String> batch -> batches << new ArrayList<>(batch); latch.countDown() } as Consumer<List<String>>)
+
+		when: "fewer values are accepted than fit in a batch"
+			graph.acceptAll(["a", "b"])
+
+		then: "the partial batch is published by the timer"
+			latch.await(5, TimeUnit.SECONDS)
+			batches == [["a", "b"]]
+
+	}
+
+	def "Partitioned Nodes keep values with the same key in order"() {
+
+		given: "a Graph with a partitioned Node"
+			def seen = new ConcurrentHashMap<Integer, List<Integer>>()
+			def latch = new CountDownLatch(1000)
+			Graph<List<Integer>> graph = Graph.create(env, "sync")
+			graph.node().
+					partitionBy({ List<Integer> v -> v[0] } as Function<List<Integer>, Integer>, 4).
+					consume({ List<Integer> v ->
+						seen.putIfAbsent(v[0], Collections.synchronizedList([]))
+						seen[v[0]] << v[1]
+						latch.countDown()
+					} as Consumer<List<Integer>>)
+
+		when: "values for several keys are accepted"
+			(0..<1000).each { graph.accept([it % 10, it]) }
+
+		then: "values for each key were processed in order"
+			latch.await(5, TimeUnit.SECONDS)
+			seen.size() == 10
+			seen.values().every { it == it.sort(false) }
+
+		cleanup:
+			graph.shutdown()
+
+	}
+
+	def "Routes from partitioned Nodes stay on the lane of each value"() {
+
+		given: "a Graph routing the values of some keys from a partitioned Node"
+			def seen = new ConcurrentHashMap<Integer, List<Integer>>()
+			def threads = Collections.synchronizedSet(new HashSet<Thread>())
+			def latch = new CountDownLatch(500)
+			Graph<List<Integer>> graph = Graph.create(env, "sync")
+			graph.node("evens").
+					consume({ List<Integer> v ->
+						threads << Thread.currentThread()
+						seen.putIfAbsent(v[0], Collections.synchronizedList([]))
+						seen[v[0]] << v[1]
+						latch.countDown()
+					} as Consumer<List<Integer>>)
+			graph.node("start").
+					partitionBy({ List<Integer> v -> v[0] } as Function<List<Integer>, Integer>, 4).
+					when({ List<Integer> v -> v[0] % 2 == 0 } as Predicate<List<Integer>>).
+					routeTo("evens")
+			graph.startNode("start")
+
+		when: "values for several keys are accepted"
+			(0..<1000).each { graph.accept([it % 10, it]) }
+
+		then: "the routed values for each key were processed in order on the lanes"
+			latch.await(5, TimeUnit.SECONDS)
+			seen.size() == 5
+			seen.values().every { it == it.sort(false) }
+			!threads.contains(Thread.currentThread())
+			threads.size() <= 4
+
+		cleanup:
+			graph.shutdown()
+
+	}
+
+	def "Routes into partitioned Nodes are spread across the lanes by key"() {
+
+		given: "a Graph routing every value into a partitioned Node"
+			def seen = new ConcurrentHashMap<Integer, List<Integer>>()
+			def threads = new ConcurrentHashMap<Integer, Set<Thread>>()
+			def latch = new CountDownLatch(1000)
+			Graph<List<Integer>> graph = Graph.create(env, "sync")
+			def partitioned = graph.node().
+					partitionBy({ List<Integer> v -> v[0] } as Function<List<Integer>, Integer>, 4).
+					consume({ List<Integer> v ->
+						threads.putIfAbsent(v[0], Collections.synchronizedSet(new HashSet<Thread>()))
+						threads[v[0]] << Thread.currentThread()
+						seen.putIfAbsent(v[0], Collections.synchronizedList([]))
+						seen[v[0]] << v[1]
+						latch.countDown()
+					} as Consumer<List<Integer>>)
+			graph.node("start").
+					when({ List<Integer> v -> true } as Predicate<List<Integer>>).
+					routeTo(partitioned)
+			graph.startNode("start")
+
+		when: "values for several keys are accepted"
+			(0..<1000).each { graph.accept([it % 40, it]) }
+
+		then: "each key stayed on one lane and the keys were spread over several"
+			latch.await(5, TimeUnit.SECONDS)
+			seen.size() == 40
+			seen.values().every { it == it.sort(false) }
+			threads.values().every { it.size() == 1 }
+			threads.values().collect { it.first() }.unique().size() > 1
+
+		cleanup:
+			graph.shutdown()
+
+	}
+
+	def "Partitioned Nodes batch the values of each lane separately"() {
+
+		given: "a Graph batching the keys of a partitioned Node"
+			def lanes = new ConcurrentHashMap<Integer, Thread>()
+			def batches = Collections.synchronizedList([])
+			def latch = new CountDownLatch(200)
+			Graph<Integer> graph = Graph.create(env, "sync")
+			graph.node().
+					partitionBy({ Integer i -> i } as Function<Integer, Integer>, 4).
+					consume({ Integer i -> lanes[i] = Thread.currentThread() } as Consumer<Integer>).
+					batch(5, 0, TimeUnit.MILLISECONDS).
+					consume({ List<Integer> batch ->
+						batches << new ArrayList<Integer>(batch)
+						latch.countDown()
+					} as Consumer<List<Integer>>)
+
+		when: "values for several keys are accepted"
+			(0..<1000).each { graph.accept(it % 40) }
+
+		then: "every batch holds the keys of a single lane"
+			latch.await(5, TimeUnit.SECONDS)
+			batches.every { List<Integer> batch -> batch.collect { lanes[it] }.unique().size() == 1 }
+
+		cleanup:
+			graph.shutdown()
+
+	}
+
+	def "Bounded Nodes push back on producers"() {
+
+		given: "a Graph whose only Node is bounded and stalled"
+			def gate = new CountDownLatch(1)
+			Graph<String> graph = Graph.create(env, new ThreadPoolExecutorDispatcher(1, 16))
+			graph.node().
+					capacity(2).
+					consume({ String s -> gate.await() } as Consumer<String>)
+
+		when: "more values are offered than the Node can hold"
+			def accepted = [graph.tryAccept("a"), graph.tryAccept("b"), graph.tryAccept("c")]
+			def timedOut = !graph.accept("d", 50, TimeUnit.MILLISECONDS)
+
+		then: "the excess values are refused"
+			accepted == [true, true, false]
+			timedOut
+
+		when: "the Node catches up"
+			gate.countDown()
+
+		then: "values are accepted again"
+			graph.accept("e", 5, TimeUnit.SECONDS)
+
+	}
+
+	def "Bounded Nodes refuse values forwarded from other Dispatchers"() {
+
+		given: "a Graph routing to a bounded and stalled Node on another Dispatcher"
+			def gate = new CountDownLatch(1)
+			def processed = new CountDownLatch(2)
+			def refused = []
+			Graph<String> graph = Graph.create(env, "sync")
+			graph.node("slow", new ThreadPoolExecutorDispatcher(1, 16)).
+					capacity(1).
+					consume({ String s -> gate.await(); processed.countDown() } as Consumer<String>)
+			def start = graph.node("start")
+			start.when({ String s -> true } as Predicate<String>).routeTo("slow")
+			start.when(RejectedExecutionException).consume({ e -> refused << e } as Consumer<RejectedExecutionException>)
+			graph.startNode("start")
+
+		when: "more values are routed than the Node can hold"
+			["a", "b", "c"].each { graph.accept(it) }
+
+		then: "the producer is not blocked and the excess values are reported as errors of the routing Node"
+			refused.size() == 2
+
+		when: "the Node catches up"
+			gate.countDown()
+
+		then: "values are routed to it again"
+			new PollingConditions(timeout: 5).eventually {
+				int before = refused.size()
+				graph.accept("d")
+				assert refused.size() == before
+			}
+			processed.await(5, TimeUnit.SECONDS)
+
+	}
+
+	def "Graphs collect metrics per Node and Route"() {
+
+		given: "a Graph with metrics enabled"
+			Graph<String> graph = Graph.create(env, "sync").enableMetrics()
+			graph.node("start").
+					consume({ s -> Integer.parseInt(s) } as Consumer<String>).
+					when({ String s -> s.startsWith("1") }).
+					consume({ s -> })
+
+		when: "values are accepted"
+			["1", "2", "12", "x"].each { graph.accept(it) }
+			def metrics = graph.metrics()
+
+		then: "values, errors and branches were counted"
+			metrics.getNode("start").eventCount == 4
+			metrics.getNode("start").errorCount == 1
+			metrics.getNode("start").pending == 0
+			metrics.getNode("start").processingTime.totalCount == 4
+			metrics.routes[0].eventCount == 2
+			metrics.routes[0].otherwiseCount == 2
+
+		when: "metrics are disabled"
+			graph.disableMetrics()
+
+		then: "nothing is collected"
+			graph.metrics().nodes.empty
+
+	}
+
+	def "Graphs trace sampled values through each hop"() {
+
+		given: "a Graph tracing every value"
+			Graph<String> graph = Graph.create(env, "sync").enableTracing(1, 2)
+			graph.node("count").consume({ s -> })
+			graph.node("start").
+					when({ String s -> s.startsWith("Hello") }).
+					routeTo("count")
+			graph.startNode("start")
+
+		when: "values are accepted"
+			["Hello", "Goodbye", "Hello World!"].each { graph.accept(it) }
+			def traces = graph.traces()
+
+		then: "only the most recent traces are kept, with a timestamp per hop"
+			traces.size() == 2
+			(0..<traces[0].hopCount).collect { traces[0].getStage(it) } == ["start"]
+			(0..<traces[1].hopCount).collect { traces[1].getStage(it) } == ["start", "route-0", "count"]
+			traces[1].getTimestamp(2) >= traces[1].getTimestamp(0)
+			traces[1].completionTime >= traces[1].ingressTime
+
+	}
+
+	def "Nodes on the same Dispatcher share a Reactor"() {
+
+		given: "a Graph"
+			Graph<String> graph = Graph.create(env, "sync")
+
+		when: "Nodes are created on the default and on another Dispatcher"
+			def a = graph.node("a")
+			def b = graph.node("b")
+			def c = graph.node("c", env.getDispatcher("ringBuffer"))
+
+		then: "only Nodes on the same Dispatcher share a Reactor"
+			a.reactor.is(b.reactor)
+			!a.reactor.is(c.reactor)
+
+	}
+
+	def "Nodes can be created in bulk and reached without a name"() {
+
+		given: "a Graph with many Nodes created at once"
+			def seen = []
+			Graph<Integer> graph = Graph.create(env, "sync")
+			def entities = graph.nodes(10000)
+			entities[42].consume({ i -> seen << i } as Consumer<Integer>)
+
+		when: "a Route forwards to one of them"
+			graph.node("start").
+					when({ Integer i -> i == 42 }).
+					routeTo(entities[42])
+			graph.startNode("start")
+			(40..44).each { graph.accept(it) }
+
+		then: "the Nodes have consecutive ids and the value reached its Node"
+			entities.last().id - entities.first().id == 9999
+			seen == [42]
+
+	}
+
+	def "Switches route values by key in one step"() {
+
+		given: "a Graph with a Node switching on the first letter"
+			def routed = [:].withDefault { [] }
+			Graph<String> graph = Graph.create(env, "sync")
+			["a", "b", "other"].each { name ->
+				graph.node(name).consume({ s -> routed[name] << s } as Consumer<String>)
+			}
+			graph.node("start").
+					switchOn({ String s -> s[0] } as Function<String, String>).
+					caseOf("a", "a").
+					caseOf("b", "b").
+					defaultTo("other")
+			graph.startNode("start")
+
+		when: "values are accepted"
+			["apple", "banana", "cherry", "avocado"].each { graph.accept(it) }
+
+		then: "each value reached the Node of its case, or the default"
+			routed["a"] == ["apple", "avocado"]
+			routed["b"] == ["banana"]
+			routed["other"] == ["cherry"]
+
+	}
+
+	def "Type switches route values and errors by their class"() {
+
+		given: "a Graph switching on the type of its values"
+			def routed = []
+			Graph<Object> graph = Graph.create(env, "sync")
+			graph.node("ints").consume({ o -> routed << "int:$o" } as Consumer<Object>)
+			graph.node("numbers").consume({ o -> routed << "number:$o" } as Consumer<Object>)
+			def strings = graph.node("strings").
+					consume({ o -> throw new IllegalArgumentException(o) } as Consumer<Object>)
+			strings.when(RuntimeException).consume({ t -> routed << "runtime:$t.message" } as Consumer<RuntimeException>)
+			strings.when(IllegalArgumentException).consume({ t -> routed << "illegal:$t.message" } as Consumer<IllegalArgumentException>)
+			graph.node("start").
+					switchOnType().
+					caseOf(Integer, "ints").
+					caseOf(Number, "numbers").
+					caseOf(String, "strings")
+			graph.startNode("start")
+
+		when: "values of different types are accepted"
+			[1, 2.5d, "x", [], 3].each { graph.accept(it) }
+
+		then: "each value took the first matching case and errors reached every matching handler"
+			routed == ["int:1", "number:2.5", "runtime:x", "illegal:x", "int:3"]
+
+	}
+
+	def "Adaptive Choices test the most selective branch first"() {
+
+		given: "a Graph choosing between mutually exclusive branches"
+			def counts = [0, 0, 0]
+			Graph<Integer> graph = Graph.create(env, "sync")
+			(0..2).each { int b ->
+				graph.node("branch-$b").consume({ i -> counts[b]++ } as Consumer<Integer>)
+			}
+			def choice = graph.node("start").
+					choose().
+					when({ Integer i -> i == 0 } as Predicate<Integer>, "branch-0").
+					when({ Integer i -> i == 1 } as Predicate<Integer>, "branch-1").
+					otherwise("branch-2").
+					adaptive(1000)
+			graph.startNode("start")
+
+		when: "most values pass the last branch"
+			def order = choice.order
+			5000.times { graph.accept(it % 10 == 0 ? 0 : 1) }
+
+		then: "the branches were reordered without changing where values went"
+			order == [0, 1]
+			choice.order == [1, 0]
+			counts == [500, 4500, 0]
+
+	}
+
+	def "Adaptive Choices keep the best order once they have found it"() {
+
+		given: "a Graph choosing between mutually exclusive branches"
+			Graph<Integer> graph = Graph.create(env, "sync")
+			(0..2).each { int b ->
+				graph.node("branch-$b").consume({ i -> } as Consumer<Integer>)
+			}
+			def choice = graph.node("start").
+					choose().
+					when({ Integer i -> i == 0 } as Predicate<Integer>, "branch-0").
+					when({ Integer i -> i == 1 } as Predicate<Integer>, "branch-1").
+					otherwise("branch-2").
+					adaptive(1000)
+			graph.startNode("start")
+
+		when: "the same traffic keeps coming for many intervals"
+			def orders = []
+			50.times {
+				1000.times { graph.accept(it % 10 == 0 ? 0 : 1) }
+				orders << choice.order
+			}
+
+		then: "the most selective branch stays first"
+			orders.every { it == [1, 0] }
+
+	}
+
+	def "Term matchers route values by the term they contain"() {
+
+		given: "a Graph switching on the tracked term found in each value"
+			def routed = [:].withDefault { [] }
+			Graph<String> graph = Graph.create(env, "sync")
+			["music", "sports", "other"].each { name ->
+				graph.node(name).consume({ s -> routed[name] << s } as Consumer<String>)
+			}
+			graph.node("start").
+					switchOn(TermMatcher.of("bieber", "beliebers", "lakers")).
+					caseOf("bieber", "music").
+					caseOf("beliebers", "music").
+					caseOf("lakers", "sports").
+					defaultTo("other")
+			graph.startNode("start")
+
+		when: "values are accepted"
+			["justinbieber", "gobeliebers", "lakersnation", "nothing"].each { graph.accept(it) }
+
+		then: "each value was routed by the term it contains"
+			routed["music"] == ["justinbieber", "gobeliebers"]
+			routed["sports"] == ["lakersnation"]
+			routed["other"] == ["nothing"]
+			Predicates.containsAny(["bieber", "lakers"]).test("thelakers")
+			!Predicates.startsWithAny(["bieber", "lakers"]).test("thelakers")
+
+	}
+
+	def "Cached functions run once per distinct value"() {
+
+		given: "a Graph with a cached transformation"
+			def calls = 0
+			def results = []
+			def lengths = new CachedFunction<String, Integer>({ String s -> calls++; s.size() } as Function<String, Integer>, 16)
+			Graph<String> graph = Graph.create(env, "sync")
+			graph.node().
+					then(lengths).
+					consume({ i -> results << i } as Consumer<Integer>)
+
+		when: "repeated values are accepted"
+			["a", "bb", "a", "bb", "a", "ccc"].each { graph.accept(it) }
+
+		then: "the function ran once per distinct value"
+			results == [1, 2, 1, 2, 1, 3]
+			calls == 3
+			lengths.hitCount == 3
+			lengths.missCount == 3
+
+	}
+
+	def "Values can be counted by key from several threads"() {
+
+		given: "a Graph counting values by their remainder"
+			Graph<Integer> graph = Graph.create(env, "sync")
+			def counts = graph.node().countBy({ Integer i -> i % 10 } as Function<Integer, Integer>)
+
+		when: "values are accepted from several threads"
+			def threads = (0..<4).collect {
+				Thread.start { 10000.times { i -> graph.accept(i) } }
+			}
+			threads*.join()
+
+		then: "no count was lost"
+			counts.get(3) == 4000
+			counts.snapshot().size() == 10
+			counts.snapshot().values().sum() == 40000
+
+	}
+
+	def "A leaderboard of the most frequent keys is published when it changes"() {
+
+		given: "a Graph keeping the top 2 values"
+			def boards = []
+			Graph<String> graph = Graph.create(env, "sync")
+			graph.node().
+					topK({ String s -> s } as Function<String, String>, 2).
+					consume({ l -> boards << l.collect { it.t1 } } as Consumer<List<Tuple2<String, Long>>>)
+
+		when: "values are accepted"
+			["a", "b", "b", "c", "c", "c", "a"].each { graph.accept(it) }
+
+		then: "a leaderboard was published each time a key entered it or changed places"
+			boards == [["a"], ["a", "b"], ["b", "a"], ["b", "c"], ["c", "b"]]
+
+	}
+
+	def "Distinct keys can be estimated and the sketches merged"() {
+
+		given: "two Nodes counting distinct values"
+			Graph<Integer> graph = Graph.create(env, "sync")
+			def identity = { Integer i -> i } as Function<Integer, Integer>
+			def evens = graph.node("evens").countDistinct(identity, 14)
+			def odds = graph.node("odds").countDistinct(identity, 14)
+			graph.node("start").
+					when({ Integer i -> i % 2 == 0 } as Predicate<Integer>).
+					routeTo("evens").
+					otherwise().
+					routeTo("odds")
+			graph.startNode("start")
+
+		when: "each value is accepted twice"
+			2.times { 20000.times { i -> graph.accept(i) } }
+
+		then: "each estimate and that of the merged sketches is within 5% of the number of distinct values"
+			Math.abs(evens.cardinality() - 10000) < 500
+			Math.abs(odds.cardinality() - 10000) < 500
+			Math.abs(evens.snapshot().merge(odds.snapshot()).cardinality() - 20000) < 1000
+
+	}
+
+	def "Distinct counts are published periodically"() {
+
+		given: "a Graph publishing a sketch of its distinct values every 100ms"
+			def merged = new HyperLogLog(14)
+			def exact = new HyperLogLog(14)
+			(0..<1000).each { exact.add(it) }
+			Graph<Integer> graph = Graph.create(env, "sync")
+			graph.node().
+					countDistinct({ Integer i -> i } as Function<Integer, Integer>, 14, 100, TimeUnit.MILLISECONDS).
+					consume({ HyperLogLog sketch -> synchronized(merged) { merged.merge(sketch) } } as Consumer<HyperLogLog>)
+
+		when: "values are accepted, each of them several times"
+			3.times { (0..<1000).each { graph.accept(it) } }
+
+		then: "the published sketches, however the periods split the values, estimate their number within 5%"
+			new PollingConditions(timeout: 5).eventually {
+				synchronized(merged) { assert merged.cardinality() == exact.cardinality() }
+			}
+			Math.abs(merged.cardinality() - 1000) < 50
+
+		cleanup:
+			graph.shutdown()
+
+	}
+
+	def "Quantile sketches are published periodically"() {
+
+		given: "a Graph publishing a sketch of its values every 100ms"
+			def merged = new QuantileSketch(0.01)
+			Graph<Integer> graph = Graph.create(env, "sync")
+			graph.node().
+					quantiles({ Integer i -> i as double } as ToDoubleFunction<Integer>, 0.01, 100, TimeUnit.MILLISECONDS).
+					consume({ QuantileSketch sketch -> synchronized(merged) { merged.merge(sketch) } } as Consumer<QuantileSketch>)
+
+		when: "values are accepted"
+			(1..1000).each { graph.accept(it) }
+
+		then: "the published sketches hold them all and their quantiles are within 1% of the exact ones"
+			new PollingConditions(timeout: 5).eventually {
+				synchronized(merged) { assert merged.count == 1000 }
+			}
+			Math.abs(merged.getValueAtQuantile(0.5) - 500) <= 5
+			Math.abs(merged.getValueAtQuantile(0.99) - 990) <= 10
+
+		cleanup:
+			graph.shutdown()
+
+	}
+
+	def "Values can be aggregated over sliding windows"() {
+
+		given: "a Graph summing the last 4 values every 2 values"
+			def sums = []
+			Graph<Integer> graph = Graph.create(env, "sync")
+			graph.node().
+					window(4, 2, Aggregators.sum({ Integer i -> i as double } as ToDoubleFunction<Integer>)).
+					consume({ Double sum -> sums << sum } as Consumer<Double>)
+
+		when: "values are accepted"
+			(1..10).each { graph.accept(it) }
+
+		then: "a sum was published for every full window"
+			sums == [10d, 18d, 26d, 34d]
+
+	}
+
 }
@@ -0,0 +1,61 @@
+package reactor.graph
+
+import reactor.core.Environment
+import reactor.function.Consumer
+import reactor.graph.function.*
+import spock.lang.Specification
+
+class PrimitiveGraphsSpec extends Specification {
+
+	Environment env
+
+	def setup() {
+		env = new Environment()
+	}
+
+	def "LongGraphs transform and route primitive values"() {
+
+		given: "a LongGraph"
+			long sum = 0
+			def small = []
+			LongGraph graph = LongGraph.create(env, "sync")
+
+		when: "values are doubled and routed by size"
+			graph.node("in").
+					then({ long l -> l * 2 } as LongUnaryOperator).
+					when({ long l -> l > 4 } as LongPredicate).
+					consume({ long l -> sum += l } as LongConsumer).
+					otherwise().
+					consume({ long l -> small << l } as LongConsumer)
+			graph.compile()
+			(0..4).each { graph.accept(it as long) }
+
+		then: "values were routed correctly"
+			sum == 14
+			small == [0L, 2L, 4L]
+
+	}
+
+	def "Nodes hand primitive values to DoubleNodes"() {
+
+		given: "a Graph"
+			def values = []
+			int errors = 0
+			Graph<String> graph = Graph.create(env, "sync")
+
+		when: "Strings are parsed into doubles"
+			DoubleNode doubles = graph.node().mapToDouble({ String s -> Double.parseDouble(s) } as ToDoubleFunction<String>)
+			doubles.when(NumberFormatException).
+					consume({ errors++ } as Consumer<NumberFormatException>)
+			doubles.then({ double d -> d * 2 } as DoubleUnaryOperator).
+					consume({ double d -> values << d } as DoubleConsumer)
+			graph.accept("1.5")
+			graph.accept("Hello World!")
+
+		then: "valid values were transformed and invalid ones produced errors"
+			values == [3.0d]
+			errors == 1
+
+	}
+
+}
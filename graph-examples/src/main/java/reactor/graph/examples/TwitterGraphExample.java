@@ -9,16 +9,17 @@ import reactor.core.Environment;
 import reactor.event.dispatch.Dispatcher;
 import reactor.function.Consumer;
 import reactor.function.Function;
-import reactor.function.Predicate;
+import reactor.graph.Aggregators;
 import reactor.graph.Graph;
-import reactor.tuple.Tuple;
+import reactor.graph.Node;
+import reactor.graph.Predicates;
 import reactor.tuple.Tuple2;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * To run this example, you must specify your Twitter API consumer and oauth secrets. If you set the system properties
@@ -41,9 +42,16 @@ public class TwitterGraphExample {
 
 	static final Logger LOG = LoggerFactory.getLogger(TwitterGraphExample.class);
 
-	static Map<String, AtomicLong> mentionCounts = new ConcurrentHashMap<>();
-	static Map<String, AtomicLong> tagCounts     = new ConcurrentHashMap<>();
-	static ObjectMapper            mapper        = new ObjectMapper();
+	static final List<String> TRACKED_TERMS = Arrays.asList("bieber");
+
+	static final Function<String, String> TAG = new Function<String, String>() {
+		@Override
+		public String apply(String tag) {
+			return tag;
+		}
+	};
+
+	static ObjectMapper mapper = new ObjectMapper();
 
 	static {
 		mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
@@ -57,37 +65,45 @@ public class TwitterGraphExample {
 
 		Graph<String> graph = Graph.create(env);
 
-		// Count 'mentions' separately. That's any hashtag containing the word 'bieber'.
+		// Count 'mentions' separately. That's any hashtag containing one of the tracked terms.
 		graph.node("tag.mentions", workQueue)
-		     .consume(new Counter(mentionCounts));
-
-		// Count hashtags and naively trend them.
-		graph.node("tag.trending", workQueue)
-		     .consume(new Counter(tagCounts))
-		     .when(new IsTopTag())
-		     .then(new Function<String, Tuple2<String, Long>>() {
+		     .capacity(1024)
+		     .window(1, 1, TimeUnit.MINUTES, Aggregators.<String>count())
+		     .consume(new Consumer<Long>() {
 			     @Override
-			     public Tuple2<String, Long> apply(String tag) {
-				     return Tuple.of(tag, tagCounts.get(tag).get());
-			     }
-		     })
-		     .consume(new Consumer<Tuple2<String, Long>>() {
-			     @Override
-			     public void accept(Tuple2<String, Long> tup) {
-				     LOG.info("tag [{}] now at: {}", tup.getT1(), tup.getT2());
+			     public void accept(Long mentions) {
+				     LOG.info("{} mentions in the last minute", mentions);
 			     }
 		     });
 
-		graph.node("start")
-		     .when(new Predicate<String>() {
+		// Keep a leaderboard of the 10 most frequent hashtags and log the leader whenever the leaderboard changes.
+		graph.node("tag.trending", workQueue)
+		     .capacity(1024)
+		     .topK(TAG, 10)
+		     .consume(new Consumer<List<Tuple2<String, Long>>>() {
 			     @Override
-			     public boolean test(String tag) {
-				     return tag.contains("bieber");
+			     public void accept(List<Tuple2<String, Long>> leaders) {
+				     Tuple2<String, Long> top = leaders.get(0);
+				     LOG.info("top tag [{}] now at: {}", top.getT1(), top.getT2());
 			     }
-		     })
+		     });
+
+		// Bounding the start Node makes acceptAll() block when it falls behind, which in turn lets the Twitter client's
+		// bounded message queue fill up instead of piling hashtags up in the Dispatchers. The counters are bounded too,
+		// but a full counter drops the hashtags routed to it rather than holding up the start Node's Dispatcher.
+		Node<String> start = graph.node("start")
+		                          .capacity(1024);
+		start.when(Predicates.containsAny(TRACKED_TERMS))
 		     .routeTo("tag.mentions")
 		     .otherwise()
 		     .routeTo("tag.trending");
+		start.when(RejectedExecutionException.class)
+		     .consume(new Consumer<RejectedExecutionException>() {
+			     @Override
+			     public void accept(RejectedExecutionException e) {
+				     LOG.debug("Dropped a hashtag: {}", e.getMessage());
+			     }
+		     });
 
 		graph.startNode("start");
 
@@ -98,46 +114,9 @@ public class TwitterGraphExample {
 			String tweet = JsonPath.read(msg, "$.text");
 			LOG.info("@{} has this to say about Justin Bieber: {}", user, tweet);
 			List<String> tags = JsonPath.read(msg, "$.entities.hashtags[*].text");
-			for(String tag : tags) {
-				graph.accept(tag);
-			}
+			graph.acceptAll(tags);
 		}
 		twitter.stop();
 	}
 
-	static class Counter implements Consumer<String> {
-		final Map<String, AtomicLong> metrics;
-
-		Counter(Map<String, AtomicLong> metrics) {
-			this.metrics = metrics;
-		}
-
-		@Override
-		public void accept(String tag) {
-			AtomicLong counter = metrics.get(tag);
-			if(null == counter) {
-				counter = new AtomicLong(0);
-				metrics.put(tag, counter);
-			}
-			counter.incrementAndGet();
-		}
-	}
-
-	static class IsTopTag implements Predicate<String> {
-		@Override
-		public boolean test(String tag) {
-			int top = -1;
-			Map.Entry<String, AtomicLong> topEntry = null;
-			for(Map.Entry<String, AtomicLong> entry : tagCounts.entrySet()) {
-				if(entry.getValue().get() > top) {
-					top = (int)entry.getValue().get();
-					topEntry = entry;
-				}
-			}
-
-			// Is this the top tag?
-			return (null != topEntry && topEntry.getKey().equals(tag));
-		}
-	}
-
 }